@@ -0,0 +1,133 @@
+package up.edu.pandemicgamestate;
+
+/** BoardGraph
+ * This is the map of the game board, which is which cities are connected to each other, by card
+ * id. The connections are kept in flat arrays (compressed sparse rows), along with a bitmask of
+ * the neighbors of every city and the shortest distance between every pair of cities, which are
+ * all worked out once when the graph is made. The graph never changes, so one graph is shared by
+ * every game.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class BoardGraph {
+    // instance variables
+    private final int numCities;
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] neighborMasks;
+    private final byte[] distances;
+
+    /** BoardGraph()
+     * This constructor builds the graph from the connections of the cities.
+     * @param cities The cities on the board, where each city's card id is its index.
+     */
+    public BoardGraph(City[] cities) {
+        this.numCities = cities.length;
+
+        // connections go both ways, even if only one of the two cities lists it
+        this.neighborMasks = new long[this.numCities];
+        for(int i = 0; i < this.numCities; i++) {
+            City[] connect = cities[i].getConnections();
+            for(int j = 0; j < connect.length; j++) {
+                this.neighborMasks[i] |= 1L << connect[j].getId();
+                this.neighborMasks[connect[j].getId()] |= 1L << i;
+            }
+        }
+
+        // count the connections first so that they can be laid out back to back
+        this.offsets = new int[this.numCities + 1];
+        for(int i = 0; i < this.numCities; i++) {
+            this.offsets[i + 1] = this.offsets[i] + Long.bitCount(this.neighborMasks[i]);
+        }
+
+        this.targets = new int[this.offsets[this.numCities]];
+        for(int i = 0; i < this.numCities; i++) {
+            int idx = this.offsets[i];
+            for(long mask = this.neighborMasks[i]; mask != 0; mask &= mask - 1) {
+                this.targets[idx++] = Long.numberOfTrailingZeros(mask);
+            }
+        }
+
+        this.distances = this.findDistances();
+    } // BoardGraph()
+
+    /** findDistances()
+     * This is a helper method which finds the shortest distance between every pair of cities, by
+     * spreading out from each city one ring of neighbors at a time.
+     * @return The distances, where the distance from a to b is at index a * numCities + b.
+     */
+    private byte[] findDistances() {
+        byte[] dist = new byte[this.numCities * this.numCities];
+        for(int start = 0; start < this.numCities; start++) {
+            long visited = 1L << start;
+            long frontier = visited;
+            int steps = 0;
+            while(frontier != 0) {
+                // mark every city in this ring with its distance
+                for(long ring = frontier; ring != 0; ring &= ring - 1) {
+                    dist[start * this.numCities + Long.numberOfTrailingZeros(ring)] = (byte) steps;
+                }
+
+                // the next ring is every unvisited neighbor of this ring
+                long next = 0;
+                for(long ring = frontier; ring != 0; ring &= ring - 1) {
+                    next |= this.neighborMasks[Long.numberOfTrailingZeros(ring)];
+                }
+                frontier = next & ~visited;
+                visited |= next;
+                steps++;
+            }
+        }
+        return dist;
+    } // findDistances()
+
+    /** getNumCities()
+     * @return The number of cities on the board.
+     */
+    public int getNumCities() {
+        return this.numCities;
+    } // getNumCities()
+
+    /** isAdjacent()
+     * @param from The id of a city.
+     * @param to The id of another city.
+     * @return Whether the two cities are connected.
+     */
+    public boolean isAdjacent(int from, int to) {
+        return to >= 0 && to < this.numCities && (this.neighborMasks[from] & (1L << to)) != 0;
+    } // isAdjacent()
+
+    /** getNeighborMask()
+     * @param city The id of a city.
+     * @return A bitmask with bit i set for every city i connected to the city.
+     */
+    public long getNeighborMask(int city) {
+        return this.neighborMasks[city];
+    } // getNeighborMask()
+
+    /** getDegree()
+     * @param city The id of a city.
+     * @return The number of cities connected to the city.
+     */
+    public int getDegree(int city) {
+        return this.offsets[city + 1] - this.offsets[city];
+    } // getDegree()
+
+    /** getNeighbor()
+     * @param city The id of a city.
+     * @param idx Which connection of the city, from 0 to getDegree(city) - 1.
+     * @return The id of the connected city.
+     */
+    public int getNeighbor(int city, int idx) {
+        return this.targets[this.offsets[city] + idx];
+    } // getNeighbor()
+
+    /** getDistance()
+     * @param from The id of a city.
+     * @param to The id of another city.
+     * @return The fewest number of Drive/Ferry actions it takes to get from one city to the other.
+     */
+    public int getDistance(int from, int to) {
+        return this.distances[from * this.numCities + to];
+    } // getDistance()
+}
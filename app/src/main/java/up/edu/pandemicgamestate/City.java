@@ -2,7 +2,8 @@ package up.edu.pandemicgamestate;
 
 /** City
  * This is a City object, which represents a location on the game board, and is also used as
- * player cards.
+ * player cards. A city only holds what never changes during a game, so every game shares the same
+ * cities from the Board; the cubes and research stations of a game are kept in its PackedState.
  * @author Nick Scott, Sarah Strong, Emily Vo
  * @version 20 October 2020
  */
@@ -17,23 +18,25 @@ public class City {
     public static final int MAX_CUBES = 3;
 
     // instance variables
+    private int id;
     private String cityName;
     private int color;
     private float[][] location;
-    private int cubes;
     private City[] connections;
-    private boolean hasStation;
 
     /** City()
-     * This constructor will create a special City Card: either an EPIDEMIC or a NULL card.
+     * This constructor will create a special City Card: either an EPIDEMIC or a NULL card. Their
+     * ids are EPIDEMIC_CARD and NO_CARD from Deck, so they are told apart from cities by id.
      * @param type The special card.
      */
     public City(int type) {
         if(type == EPIDEMIC) {
             this.cityName = "Epidemic";
+            this.id = Deck.EPIDEMIC_CARD;
         }
         else if(type == NULL) {
             this.cityName = "NULL";
+            this.id = Deck.NO_CARD;
         }
     } // City()
 
@@ -47,23 +50,37 @@ public class City {
         this.cityName = name;
         this.color = col;
         this.location = loc;
-        this.cubes = 0;
-        this.hasStation = false;
     } // City()
 
     /** City()
-     * This is a deep copy constructor which creates a copy of a given city.
+     * This is a copy constructor which creates a copy of a given city. Cities never change during a
+     * game, so the copy shares its hitbox and connections with the original.
      * @param orig The city to be copied.
      */
     public City(City orig) {
+        this.id = orig.id;
         this.cityName = orig.cityName;
         this.color = orig.color;
         this.location = orig.location;
-        this.cubes = orig.cubes;
-        this.setConnections(orig.connections);
-        this.hasStation = orig.hasStation;
+        this.connections = orig.connections;
     } // City()
 
+    /** getId()
+     * @return The card id of the city, which is its index on the game board.
+     */
+    public int getId() {
+        return this.id;
+    } // getId()
+
+    /** setId()
+     * This is only used by the Board while it numbers its cities. Every game shares the same
+     * cities, so the id can not be changed from outside the package once the board is built.
+     * @param id The card id of the city.
+     */
+    void setId(int id) {
+        this.id = id;
+    } // setId()
+
     /** setConnections()
      * @param connect An array of adjacent cities.
      */
@@ -78,25 +95,6 @@ public class City {
         return this.color;
     } // getColor()
 
-    /** hasStation()
-     * @return Whether there is a research station here.
-     */
-    public boolean hasStation() {
-        return this.hasStation;
-    } // hasStation()
-
-    /** buildStation()
-     * This is a helper method which builds a research station at the city.
-     * @return Whether this action is valid.
-     */
-    public boolean buildStation() {
-        if(this.hasStation == false) {
-            this.hasStation = true;
-            return true;
-        }
-        return false;
-    } // buildStation()
-
     /** getConnections()
      * @return An array of the adjacent cities.
      */
@@ -104,36 +102,6 @@ public class City {
         return this.connections;
     } // getConnections()
 
-    /** treatDisease()
-     * This is a helper method which removes a disease cube from the city.
-     * @return Whether this action is valid.
-     */
-    public boolean treatDisease() {
-        if(this.cubes > 0) {
-            this.cubes--;
-            return true;
-        }
-
-        return false;
-    } // treatDisease()
-
-    /** infectCity()
-     * This method adds a disease cube to the city if its infection card is pulled.
-     * @param diseases An array of diseases.
-     * @return True if an outbreak occurs. False if only a cube was added.
-     */
-    public boolean infectCity(Disease[] diseases) {
-        if(this.cubes == 3) {
-            this.outbreak(diseases);
-            return true;
-        }
-        else {
-            this.cubes++;
-            diseases[this.color].addCube();
-            return false;
-        }
-    }
-
     /** getName()
      * @return The name of the city.
      */
@@ -141,29 +109,10 @@ public class City {
         return this.cityName;
     } // getName()
 
-    /** outbreak()
-     * This method is called when a disease cube cannot be placed due to there being three cubes
-     * already at a city. An outbreak occurs, which puts a disease cube in all of the connected
-     * cities instead.
-     * @param diseases An array of diseases.
-     */
-    public void outbreak(Disease[] diseases) {
-        for(int i = 0; i < this.connections.length; i++) {
-            this.connections[i].infectCity(diseases);
-        }
-    } // outbreak()
-
     /** getLocation()
      * @return A "hitbox" of the city, represented by coordinates.
      */
     public float[][] getLocation() {
         return this.location;
     } // getLocation()
-
-    /** getCubes()
-     * @return The number of cubes on the city.
-     */
-    public int getCubes() {
-        return this.cubes;
-    } // getCubes()
 }
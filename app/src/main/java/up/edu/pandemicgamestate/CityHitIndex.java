@@ -0,0 +1,270 @@
+package up.edu.pandemicgamestate;
+
+/** CityHitIndex
+ * This finds which city was tapped on the board image. The hitbox of every city is kept in one
+ * flat array, and the board is split into a grid of square cells where each cell lists the cities
+ * whose hitboxes overlap it (laid out back to back like the connections in BoardGraph), so a tap
+ * only has to look at the few cities in its cell instead of all 48. Nothing is allocated by a
+ * lookup, so it is safe to call while the board is being panned or zoomed.
+ *
+ * The hitboxes are in the coordinates of the board image. A screen shows the image scaled and
+ * moved, so each lookup also has a form that takes the tap in screen coordinates along with how
+ * the image is drawn, and moves the tap onto the board image before looking it up. The index
+ * itself never changes, so the one built by the Board is shared by every view.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class CityHitIndex {
+    // the width and height of a grid cell, in board coordinates, about the size of one hitbox
+    public static final float CELL_SIZE = 64f;
+
+    // the hitbox of city i is left, top, right, bottom at index 4 * i
+    private final float[] boxes;
+    private final int numCities;
+
+    // the grid, where the cities in cell c are cells[offsets[c]] up to cells[offsets[c + 1]]
+    private final float originX;
+    private final float originY;
+    private final int cols;
+    private final int rows;
+    private final int[] offsets;
+    private final int[] cells;
+
+    /** CityHitIndex()
+     * This constructor builds the grid from the hitboxes of the cities.
+     * @param cities The cities on the board, where each city's card id is its index.
+     */
+    public CityHitIndex(City[] cities) {
+        this.numCities = cities.length;
+        this.boxes = new float[4 * this.numCities];
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for(int i = 0; i < this.numCities; i++) {
+            float[][] loc = cities[i].getLocation();
+
+            // the corners may be given in either order
+            float left = Math.min(loc[0][0], loc[1][0]);
+            float top = Math.min(loc[0][1], loc[1][1]);
+            float right = Math.max(loc[0][0], loc[1][0]);
+            float bottom = Math.max(loc[0][1], loc[1][1]);
+            this.boxes[4 * i] = left;
+            this.boxes[4 * i + 1] = top;
+            this.boxes[4 * i + 2] = right;
+            this.boxes[4 * i + 3] = bottom;
+
+            minX = Math.min(minX, left);
+            minY = Math.min(minY, top);
+            maxX = Math.max(maxX, right);
+            maxY = Math.max(maxY, bottom);
+        }
+
+        this.originX = minX;
+        this.originY = minY;
+        this.cols = (int) ((maxX - minX) / CELL_SIZE) + 1;
+        this.rows = (int) ((maxY - minY) / CELL_SIZE) + 1;
+
+        // count the cities in each cell first so that they can be laid out back to back
+        this.offsets = new int[this.cols * this.rows + 1];
+        for(int i = 0; i < this.numCities; i++) {
+            int b = 4 * i;
+            for(int r = this.row(this.boxes[b + 1]); r <= this.row(this.boxes[b + 3]); r++) {
+                for(int c = this.col(this.boxes[b]); c <= this.col(this.boxes[b + 2]); c++) {
+                    this.offsets[r * this.cols + c + 1]++;
+                }
+            }
+        }
+        for(int i = 0; i < this.cols * this.rows; i++) {
+            this.offsets[i + 1] += this.offsets[i];
+        }
+
+        this.cells = new int[this.offsets[this.cols * this.rows]];
+        int[] fill = new int[this.cols * this.rows];
+        for(int i = 0; i < this.numCities; i++) {
+            int b = 4 * i;
+            for(int r = this.row(this.boxes[b + 1]); r <= this.row(this.boxes[b + 3]); r++) {
+                for(int c = this.col(this.boxes[b]); c <= this.col(this.boxes[b + 2]); c++) {
+                    int cell = r * this.cols + c;
+                    this.cells[this.offsets[cell] + fill[cell]++] = i;
+                }
+            }
+        }
+    } // CityHitIndex()
+
+    /** findCity()
+     * This method finds the city whose hitbox was tapped on a board image that is drawn scaled
+     * or moved, such as for a different screen density, or after the board is panned or zoomed.
+     * @param x The x coordinate of the tap on the screen.
+     * @param y The y coordinate of the tap on the screen.
+     * @param scale How many screen pixels one unit of the board image takes up.
+     * @param offsetX Where the left edge of the board image is on the screen.
+     * @param offsetY Where the top edge of the board image is on the screen.
+     * @return The card id of the city, or NO_CARD if the tap is not inside any hitbox.
+     */
+    public int findCity(float x, float y, float scale, float offsetX, float offsetY) {
+        checkScale(scale);
+        return this.findCity((x - offsetX) / scale, (y - offsetY) / scale);
+    } // findCity()
+
+    /** findCity()
+     * This method finds the city whose hitbox was tapped. If the tap is inside more than one
+     * hitbox, the city whose hitbox is centered closest to the tap is picked.
+     * @param bx The x coordinate of the tap on the board image.
+     * @param by The y coordinate of the tap on the board image.
+     * @return The card id of the city, or NO_CARD if the tap is not inside any hitbox.
+     */
+    public int findCity(float bx, float by) {
+        int c = (int) Math.floor((bx - this.originX) / CELL_SIZE);
+        int r = (int) Math.floor((by - this.originY) / CELL_SIZE);
+        if(c < 0 || c >= this.cols || r < 0 || r >= this.rows) {
+            return Deck.NO_CARD;
+        }
+
+        int best = Deck.NO_CARD;
+        float bestDist = Float.MAX_VALUE;
+        int cell = r * this.cols + c;
+        for(int i = this.offsets[cell]; i < this.offsets[cell + 1]; i++) {
+            int city = this.cells[i];
+            int b = 4 * city;
+            if(bx >= this.boxes[b] && bx <= this.boxes[b + 2]
+                    && by >= this.boxes[b + 1] && by <= this.boxes[b + 3]) {
+                float dx = bx - (this.boxes[b] + this.boxes[b + 2]) / 2;
+                float dy = by - (this.boxes[b + 1] + this.boxes[b + 3]) / 2;
+                float dist = dx * dx + dy * dy;
+                if(dist < bestDist) {
+                    bestDist = dist;
+                    best = city;
+                }
+            }
+        }
+        return best;
+    } // findCity()
+
+    /** findNearest()
+     * This method finds the city whose hitbox is closest to a tap on a board image that is drawn
+     * scaled or moved.
+     * @param x The x coordinate of the tap on the screen.
+     * @param y The y coordinate of the tap on the screen.
+     * @param maxDist How far away from a hitbox a tap can be, in screen pixels.
+     * @param scale How many screen pixels one unit of the board image takes up.
+     * @param offsetX Where the left edge of the board image is on the screen.
+     * @param offsetY Where the top edge of the board image is on the screen.
+     * @return The card id of the city, or NO_CARD if every hitbox is farther than maxDist.
+     */
+    public int findNearest(float x, float y, float maxDist, float scale, float offsetX,
+                           float offsetY) {
+        checkScale(scale);
+        return this.findNearest((x - offsetX) / scale, (y - offsetY) / scale, maxDist / scale);
+    } // findNearest()
+
+    /** findNearest()
+     * This method finds the city whose hitbox is closest to a tap, which is more forgiving than
+     * findCity() for taps that just miss a city. It looks at the cells around the tap one ring at
+     * a time, and stops as soon as no city in a farther ring could be closer.
+     * @param bx The x coordinate of the tap on the board image.
+     * @param by The y coordinate of the tap on the board image.
+     * @param limit How far away from a hitbox a tap can be, in units of the board image.
+     * @return The card id of the city, or NO_CARD if every hitbox is farther than limit.
+     */
+    public int findNearest(float bx, float by, float limit) {
+        int inside = this.findCity(bx, by);
+        if(inside != Deck.NO_CARD) {
+            return inside;
+        }
+
+        int c = this.col(bx);
+        int r = this.row(by);
+
+        int best = Deck.NO_CARD;
+        float bestDist = limit * limit;
+        int maxRing = Math.max(this.cols, this.rows);
+        for(int ring = 0; ring <= maxRing; ring++) {
+            // a city that is not in this ring or a nearer one is at least this far away
+            float gap = (ring - 1) * CELL_SIZE;
+            if(gap > 0 && gap * gap > bestDist) {
+                break;
+            }
+
+            for(int rr = Math.max(r - ring, 0); rr <= Math.min(r + ring, this.rows - 1); rr++) {
+                // only the first and last rows of a ring cover every column
+                boolean edge = rr == r - ring || rr == r + ring;
+                int step = edge ? 1 : Math.max(2 * ring, 1);
+                for(int cc = c - ring; cc <= c + ring; cc += step) {
+                    if(cc < 0 || cc >= this.cols) {
+                        continue;
+                    }
+                    int cell = rr * this.cols + cc;
+                    for(int i = this.offsets[cell]; i < this.offsets[cell + 1]; i++) {
+                        // the distance to the closest point of the hitbox
+                        int b = 4 * this.cells[i];
+                        float dx = Math.max(this.boxes[b] - bx, bx - this.boxes[b + 2]);
+                        float dy = Math.max(this.boxes[b + 1] - by, by - this.boxes[b + 3]);
+                        dx = Math.max(dx, 0f);
+                        dy = Math.max(dy, 0f);
+                        float dist = dx * dx + dy * dy;
+                        if(dist <= bestDist) {
+                            bestDist = dist;
+                            best = this.cells[i];
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    } // findNearest()
+
+    /** getHitbox()
+     * @param city The id of a city.
+     * @param out An array of at least four floats, which is filled with the left, top, right and
+     * bottom of the city's hitbox on the board image.
+     */
+    public void getHitbox(int city, float[] out) {
+        System.arraycopy(this.boxes, 4 * city, out, 0, 4);
+    } // getHitbox()
+
+    /** getHitbox()
+     * @param city The id of a city.
+     * @param out An array of at least four floats, which is filled with the left, top, right and
+     * bottom of the city's hitbox on the screen.
+     * @param scale How many screen pixels one unit of the board image takes up.
+     * @param offsetX Where the left edge of the board image is on the screen.
+     * @param offsetY Where the top edge of the board image is on the screen.
+     */
+    public void getHitbox(int city, float[] out, float scale, float offsetX, float offsetY) {
+        checkScale(scale);
+        for(int i = 0; i < 4; i++) {
+            float offset = i % 2 == 0 ? offsetX : offsetY;
+            out[i] = this.boxes[4 * city + i] * scale + offset;
+        }
+    } // getHitbox()
+
+    /** checkScale()
+     * This is a helper method which checks the scale of a board image drawn on the screen.
+     * @param scale How many screen pixels one unit of the board image takes up.
+     * @throws IllegalArgumentException If the scale is not positive.
+     */
+    private static void checkScale(float scale) {
+        if(!(scale > 0f)) {
+            throw new IllegalArgumentException("scale must be positive, was " + scale);
+        }
+    } // checkScale()
+
+    /** col()
+     * @param x An x coordinate on the board image.
+     * @return The column of the grid it falls in, kept inside the grid.
+     */
+    private int col(float x) {
+        int c = (int) Math.floor((x - this.originX) / CELL_SIZE);
+        return Math.min(Math.max(c, 0), this.cols - 1);
+    } // col()
+
+    /** row()
+     * @param y A y coordinate on the board image.
+     * @return The row of the grid it falls in, kept inside the grid.
+     */
+    private int row(float y) {
+        int r = (int) Math.floor((y - this.originY) / CELL_SIZE);
+        return Math.min(Math.max(r, 0), this.rows - 1);
+    } // row()
+}
@@ -1,139 +1,717 @@
 package up.edu.pandemicgamestate;
 
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /** Deck
- * This is a Deck object which contains an array of City objects, which will be used as City Cards
- * for the players in this case.
+ * This is a Deck object which contains an array of card ids, which will be used as City Cards
+ * for the players in this case. The cards themselves are looked up on the Board. A copy of a deck
+ * shares the order of the cards with the original until one of them is shuffled.
+ *
+ * The cards are in two parts: the discard pile, which is every card drawn so far, up to and
+ * including the current position, and then the draw pile. The array is a ring, which starts at
+ * head and wraps around, so that the card on the bottom of the draw pile can be moved onto the
+ * discard pile (as an epidemic does) by moving head back one, without moving any other card.
+ * Indexes into the deck, such as for getCardAtIndex(), count from the top of the discard pile, not
+ * from the start of the array.
+ *
+ * The deck also keeps track of what the players know about the order of the cards they have not
+ * drawn. The deck is split into blocks: the players know which cards are in each block, but not
+ * their order within it, and know nothing about the cards under the last block. For example,
+ * after an epidemic the cards that were shuffled back onto the top are a block. The player deck
+ * is also split into piles when the epidemics are shuffled in: the players know that each pile
+ * has one epidemic card, but not which city cards are in which pile.
  * @author Nick Scott, Sarah Strong, and Emily Vo.
  * @version 20 October 2020.
  */
 public class Deck {
     public static final int NUM_CITIES = 48;
 
+    // special card ids:
+    // EPIDEMIC_CARD - the id of an epidemic card, which comes right after the cities
+    // NO_CARD - returned when there is no card to draw, and used for "empty" hand slots
+    public static final int EPIDEMIC_CARD = NUM_CITIES;
+    public static final int NO_CARD = -1;
+
+    // every card id fits in this many bits, which is how they are packed in snapshots
+    private static final int CARD_BITS = 6;
+
     // instance variables
-    private City[] deck;
+    private int[] deck;
     private int currPos;
+    private int head;
+    private boolean owned;
+
+    // the Zobrist hash of the order of the cards, see getHash()
+    private long orderHash;
+
+    // the index just past the end of each known block, a byte each, from the top of the deck
+    // down, with 0 after the last block
+    private long blocks;
+    public static final int MAX_BLOCKS = 8;
+
+    // the index just past the end of each pile that an epidemic was shuffled into, packed the
+    // same way as the blocks, see insertEpidemics()
+    private long piles;
 
     /** Deck()
      * This constructor initializes the deck, and then shuffles it.
-     * @param cards The city cards to put into the deck.
+     * @param order The card ids to put into the deck, which is shuffled in place.
      * @param rng A random number generator.
      */
-    public Deck(City[] cards, Random rng) {
-        // arbitrary amount of times cards will be swapped (1000 is a high amount, should
-        // shuffle a sufficient number of times
-        int shuffle = 1000;
-
-        // randomize the cards by swapping two cards
-        for (int i = 0; i < shuffle; i++) {
-            int card1 = rng.nextInt(cards.length);
-            int card2 = rng.nextInt(cards.length);
-
-            City temp = cards[card1];
-            cards[card1] = cards[card2];
-            cards[card2] = temp;
-        }
+    public Deck(int[] order, GameRandom rng) {
+        rng.shuffle(order, 0, order.length);
 
         // set it to instance deck
-        this.deck = cards;
+        this.deck = order;
+        this.owned = true;
+        this.orderHash = this.computeOrderHash();
 
         // currPos starts at -1 so when it first deals, it goes to index 0
         this.currPos = -1;
     } // Deck()
 
     /** Deck()
-     * This is a deep copy constructor which creates a deck of copies of the City Cards.
-     * @param orig The Deck object we are making a deep copy of.
+     * This is a copy constructor, which shares the order of the cards with the original deck until
+     * one of the two decks changes it.
+     * @param orig The Deck object we are making a copy of.
      */
     public Deck(Deck orig) {
-        this.deck = new City[orig.deck.length];
-        for(int i = 0; i < orig.deck.length; i++) {
-            this.deck[i] = new City(orig.deck[i]);
-        }
+        this.deck = orig.deck;
+        this.currPos = orig.currPos;
+        this.head = orig.head;
+        this.orderHash = orig.orderHash;
+        this.blocks = orig.blocks;
+        this.piles = orig.piles;
+        orig.owned = false;
+        this.owned = false;
+    } // Deck()
+
+    /** Deck()
+     * This constructor initializes the deck in the given order, without shuffling it.
+     * @param order The card ids to put into the deck.
+     */
+    public Deck(int[] order) {
+        this.deck = order;
+        this.currPos = -1;
+        this.owned = true;
+        this.orderHash = this.computeOrderHash();
     } // Deck()
 
-    public Deck(City[] cities) {
-        this.deck = cities;
-    }
+    /** copyFrom()
+     * This method overwrites this deck with the contents of another deck of the same size, so
+     * that a deck can be reused instead of allocating a new one.
+     * @param orig The Deck object we are copying.
+     */
+    public void copyFrom(Deck orig) {
+        if(this.owned) {
+            System.arraycopy(orig.deck, 0, this.deck, 0, orig.deck.length);
+        }
+        else {
+            this.deck = orig.deck.clone();
+            this.owned = true;
+        }
+        this.currPos = orig.currPos;
+        this.head = orig.head;
+        this.orderHash = orig.orderHash;
+        this.blocks = orig.blocks;
+        this.piles = orig.piles;
+    } // copyFrom()
+
+    /** encode()
+     * This method writes the whole deck into a buffer, including the order of the cards the
+     * players have not seen, so it is only meant for saving a game. It is the size, the position
+     * and the start of the ring, then the end of each known block and each pile (a count and then
+     * one byte for each), and then every card in the order of the array at six bits a card.
+     * @param out The buffer to write to.
+     */
+    public void encode(ByteBuffer out) {
+        out.put((byte) this.deck.length);
+        out.put((byte) this.currPos);
+        out.put((byte) this.head);
+        putEnds(out, this.blocks);
+        putEnds(out, this.piles);
+
+        long bits = 1;
+        for(int i = 0; i < this.deck.length; i++) {
+            bits = putCard(out, bits, this.deck[i]);
+        }
+        flushCards(out, bits);
+    } // encode()
+
+    /** decode()
+     * This method reads a deck written by encode() into this deck, reusing its array if it is the
+     * same size.
+     * @param in The buffer to read from.
+     */
+    public void decode(ByteBuffer in) {
+        this.resize(in.get() & 0xff);
+        this.currPos = in.get();
+        this.head = in.get() & 0xff;
+        this.blocks = getEnds(in);
+        this.piles = getEnds(in);
+        getCards(in, this.deck, this.deck.length);
+        this.orderHash = this.computeOrderHash();
+    } // decode()
+
+    /** encodePublic()
+     * This method writes only what the players can see of the deck, which is what is sent to a
+     * player's device: the order of the discard pile, which cards are in each known block (but not
+     * their order), and where the piles are and which of them still have an epidemic. The order
+     * of the cards the players have not seen is left out, and so is anything about the cards
+     * below the known blocks, since those are just the cards that are left over.
+     *
+     * It is the size and the position, the ends of the blocks and the piles as in encode(), a byte
+     * with a bit for each pile that still has an epidemic if there are any piles, and then the
+     * discard pile from the top followed by the cards left in each block in order of their ids,
+     * at six bits a card.
+     * @param out The buffer to write to.
+     */
+    public void encodePublic(ByteBuffer out) {
+        out.put((byte) this.deck.length);
+        out.put((byte) this.currPos);
+        putEnds(out, this.blocks);
+        putEnds(out, this.piles);
+        if(this.piles != 0) {
+            out.put((byte) this.getPilesWithEpidemic());
+        }
+
+        long bits = 1;
+        for(int i = 0; i <= this.currPos; i++) {
+            bits = putCard(out, bits, this.deck[this.slot(i)]);
+        }
+        int start = this.currPos + 1;
+        for(long b = this.blocks; b != 0; b >>>= 8) {
+            int end = (int) (b & 0xff);
+            if(end > start) {
+                // the cards of a block are all different, so one bit each sorts them
+                long cards = 0;
+                for(int i = start; i < end; i++) {
+                    cards |= 1L << this.deck[this.slot(i)];
+                }
+                for(; cards != 0; cards &= cards - 1) {
+                    bits = putCard(out, bits, Long.numberOfTrailingZeros(cards));
+                }
+                start = end;
+            }
+        }
+        flushCards(out, bits);
+    } // encodePublic()
+
+    /** decodePublic()
+     * This method reads a deck written by encodePublic() into this deck. The cards the players
+     * have not seen are put back in a fixed order that fits everything they know: the cards of
+     * each block in order of their ids, then the cities nobody has seen in order of their ids,
+     * with the epidemic of each pile that still has one on top of it. A bot that needs to play
+     * ahead from this deck should shuffle it with shuffleUnknown() first.
+     * @param in The buffer to read from.
+     */
+    public void decodePublic(ByteBuffer in) {
+        int size = in.get() & 0xff;
+        this.resize(size);
+        this.currPos = in.get();
+        this.head = 0;
+        this.blocks = getEnds(in);
+        this.piles = getEnds(in);
+        int withEpidemic = this.piles != 0 ? in.get() & 0xff : 0;
+
+        // the cards that were written run from the top of the deck to the end of the last block
+        int known = this.currPos + 1;
+        for(long b = this.blocks; b != 0; b >>>= 8) {
+            known = Math.max(known, (int) (b & 0xff));
+        }
+        getCards(in, this.deck, known);
+
+        // every other card of the deck is one that nobody has seen
+        long seen = 0;
+        int epidemics = size - NUM_CITIES;
+        for(int i = 0; i < known; i++) {
+            if(this.deck[i] == EPIDEMIC_CARD) {
+                epidemics--;
+            }
+            else {
+                seen |= 1L << this.deck[i];
+            }
+        }
+        int next = known;
+        for(int i = 0; i < NUM_CITIES; i++) {
+            if((seen & 1L << i) == 0) {
+                this.deck[next++] = i;
+            }
+        }
+        if(this.piles != 0) {
+            this.spreadEpidemics(known, withEpidemic, null);
+        }
+        else {
+            for(; epidemics > 0; epidemics--) {
+                this.deck[next++] = EPIDEMIC_CARD;
+            }
+        }
+        this.orderHash = this.computeOrderHash();
+    } // decodePublic()
+
+    /** resize()
+     * This is a helper method which makes sure the deck has its own array of the given size, and
+     * makes a new one only if it has to.
+     * @param size The number of cards.
+     */
+    private void resize(int size) {
+        if(!this.owned || this.deck.length != size) {
+            this.deck = new int[size];
+            this.owned = true;
+        }
+    } // resize()
+
+    /** getPilesWithEpidemic()
+     * @return A bit for each pile whose cards that have not been drawn still include an epidemic.
+     */
+    public int getPilesWithEpidemic() {
+        if(this.piles == 0) {
+            return 0;
+        }
+        int withEpidemic = 0;
+        int pile = 0;
+        for(int i = this.currPos + 1; i < this.deck.length; i++) {
+            while(i >= (int) (this.piles >>> (8 * pile) & 0xff)) {
+                pile++;
+            }
+            if(this.deck[this.slot(i)] == EPIDEMIC_CARD) {
+                withEpidemic |= 1 << pile;
+            }
+        }
+        return withEpidemic;
+    } // getPilesWithEpidemic()
+
+    /** putEnds()
+     * This is a helper method which writes the ends of the blocks or the piles as a count and then
+     * one byte for each.
+     * @param out The buffer to write to.
+     * @param ends The ends, a byte each, with 0 after the last one.
+     */
+    private static void putEnds(ByteBuffer out, long ends) {
+        int count = (71 - Long.numberOfLeadingZeros(ends)) / 8;
+        out.put((byte) count);
+        for(int i = 0; i < count; i++) {
+            out.put((byte) (ends >>> (8 * i)));
+        }
+    } // putEnds()
+
+    /** getEnds()
+     * This is a helper method which reads ends written by putEnds().
+     * @param in The buffer to read from.
+     * @return The ends, a byte each, with 0 after the last one.
+     */
+    private static long getEnds(ByteBuffer in) {
+        int count = in.get();
+        if(count < 0 || count > MAX_BLOCKS) {
+            throw new IllegalArgumentException("A deck can not have " + count + " blocks");
+        }
+        long ends = 0;
+        for(int i = 0; i < count; i++) {
+            ends |= (long) (in.get() & 0xff) << (8 * i);
+        }
+        return ends;
+    } // getEnds()
+
+    /** putCard()
+     * This is a helper method which adds a card id to a run of cards packed at six bits each. The
+     * bits that do not fill a byte yet are kept in a long under a marker bit, so that nothing has
+     * to be allocated to keep track of them.
+     * @param out The buffer to write to.
+     * @param bits The bits not written yet under their marker bit, which is 1 to start a run.
+     * @param card The card id, from 0 to 63.
+     * @return The bits not written yet under their marker bit, to pass to the next call.
+     */
+    private static long putCard(ByteBuffer out, long bits, int card) {
+        bits = bits << CARD_BITS | card;
+        int pending = 63 - Long.numberOfLeadingZeros(bits);
+        if(pending >= 8) {
+            pending -= 8;
+            out.put((byte) (bits >>> pending));
+            bits = bits & ((1L << pending) - 1) | 1L << pending;
+        }
+        return bits;
+    } // putCard()
+
+    /** flushCards()
+     * This is a helper method which ends a run of cards written by putCard(), by writing the last
+     * bits padded with zeros to a whole byte.
+     * @param out The buffer to write to.
+     * @param bits The bits not written yet under their marker bit.
+     */
+    private static void flushCards(ByteBuffer out, long bits) {
+        int pending = 63 - Long.numberOfLeadingZeros(bits);
+        if(pending > 0) {
+            out.put((byte) (bits << (8 - pending)));
+        }
+    } // flushCards()
+
+    /** getCards()
+     * This is a helper method which reads a run of cards written by putCard().
+     * @param in The buffer to read from.
+     * @param into The array to read the cards into, from its start.
+     * @param count The number of cards.
+     */
+    private static void getCards(ByteBuffer in, int[] into, int count) {
+        int bits = 0;
+        int pending = 0;
+        for(int i = 0; i < count; i++) {
+            if(pending < CARD_BITS) {
+                bits = bits << 8 | in.get() & 0xff;
+                pending += 8;
+            }
+            pending -= CARD_BITS;
+            into[i] = bits >>> pending & ((1 << CARD_BITS) - 1);
+        }
+    } // getCards()
+
+    /** sameAs()
+     * @param other Another deck.
+     * @return Whether the other deck is at the same position and has the same order. If one deck
+     * was copied from the other and they still share their order, the cards are not compared.
+     */
+    public boolean sameAs(Deck other) {
+        if(this.currPos != other.currPos || this.head != other.head
+                || this.blocks != other.blocks || this.piles != other.piles) {
+            return false;
+        }
+        return this.deck == other.deck
+                || this.orderHash == other.orderHash && Arrays.equals(this.deck, other.deck);
+    } // sameAs()
+
+    /** writeDelta()
+     * This method writes how this deck differs from an earlier copy of it: its position, the start
+     * of the ring, and then the one run of the array which covers every card that moved, and the
+     * known blocks. Moving the bottom card onto the discard pile only moves the start of the ring,
+     * so after an epidemic the run is just the discard pile that was shuffled.
+     * @param before The earlier copy of this deck.
+     * @param out The buffer to write to.
+     */
+    public void writeDelta(Deck before, ByteBuffer out) {
+        out.put((byte) this.currPos);
+        out.put((byte) this.head);
+
+        int from = 0;
+        int to = 0;
+        if(this.deck != before.deck) {
+            from = this.deck.length;
+            for(int i = 0; i < this.deck.length; i++) {
+                if(i >= before.deck.length || this.deck[i] != before.deck[i]) {
+                    from = Math.min(from, i);
+                    to = i + 1;
+                }
+            }
+            from = Math.min(from, to);
+        }
+
+        out.put((byte) from);
+        out.put((byte) (to - from));
+        for(int i = from; i < to; i++) {
+            out.put((byte) this.deck[i]);
+        }
+        out.putLong(this.blocks);
+    } // writeDelta()
+
+    /** applyDelta()
+     * This method applies a delta written by writeDelta() to this deck.
+     * @param in The buffer to read from.
+     */
+    public void applyDelta(ByteBuffer in) {
+        this.currPos = in.get();
+        this.setHead(in.get() & 0xff);
+        int from = in.get() & 0xff;
+        int count = in.get() & 0xff;
+        if(count > 0) {
+            this.own();
+            for(int i = from; i < from + count; i++) {
+                int card = in.get();
+                this.orderHash ^= Zobrist.deckCard(i, this.deck[i]) ^ Zobrist.deckCard(i, card);
+                this.deck[i] = card;
+            }
+        }
+        this.blocks = in.getLong();
+    } // applyDelta()
+
+    /** own()
+     * This is a helper method which is called before changing the order of the cards, and copies
+     * the order first if it might still be shared with a copy of this deck.
+     */
+    private void own() {
+        if(!this.owned) {
+            this.deck = this.deck.clone();
+            this.owned = true;
+        }
+    } // own()
+
+    /** slot()
+     * This is a helper method which finds where a card of the deck is in the array.
+     * @param idx The index of the card, from the top of the discard pile.
+     * @return The index in the array.
+     */
+    private int slot(int idx) {
+        int slot = this.head + idx;
+        return slot < this.deck.length ? slot : slot - this.deck.length;
+    } // slot()
 
     /** draw()
-     * Draws the next card in the deck.
-     * @return The card drawn.
+     * Draws the next card in the deck, which moves it onto the discard pile.
+     * @return The id of the card drawn, or NO_CARD if the draw pile is empty.
      */
-    public City draw() {
-        this.currPos++;
-        if(currPos == this.deck.length - 1) {
-            return null;
+    public int draw() {
+        if(this.currPos + 1 >= this.deck.length) {
+            return NO_CARD;
         }
-        return deck[currPos];
+        this.currPos++;
+        return this.deck[this.slot(this.currPos)];
     } // draw()
 
     /** insertEpidemics()
-     * This is a helper method which inserts the epidemic cards after the initial cards have been
-     * drawn.
-     * @param numPlayers The number of players.
+     * This method inserts the epidemic cards after the starting hands have been drawn. The cards
+     * left are split into one pile for each epidemic, as evenly as possible with any bigger piles
+     * on top, an epidemic is put at a random place in each pile, and the piles are stacked back
+     * up, so the epidemics are spread out through the deck. The deck is built in one pass from the
+     * bottom up, into one new array that is just big enough.
+     * @param numEpidemics The number of epidemic cards.
+     * @param rng A random number generator.
      */
-    public void insertEpidemics(int numPlayers) {
-        City epidemic = new City(City.EPIDEMIC);
+    public void insertEpidemics(int numEpidemics, GameRandom rng) {
+        if(numEpidemics < 1 || numEpidemics > MAX_BLOCKS) {
+            throw new IllegalArgumentException("numEpidemics must be from 1 to " + MAX_BLOCKS
+                    + ", was " + numEpidemics);
+        }
 
-        if(numPlayers == 2 || numPlayers == 4) {
+        // the new array starts at the top of the discard pile, so the ring starts at 0 again
+        int start = this.currPos + 1;
+        int[] stacked = new int[this.deck.length + numEpidemics];
+        System.arraycopy(this.deck, this.head, stacked, 0, this.deck.length - this.head);
+        System.arraycopy(this.deck, 0, stacked, this.deck.length - this.head, this.head);
+        this.deck = stacked;
+        this.head = 0;
+        this.owned = true;
 
+        // the first (total % numEpidemics) piles get one extra card
+        int total = stacked.length - start;
+        int end = start;
+        this.piles = 0;
+        for(int i = 0; i < numEpidemics; i++) {
+            end += total / numEpidemics + (i < total % numEpidemics ? 1 : 0);
+            this.piles |= (long) end << (8 * i);
         }
+
+        this.spreadEpidemics(start, (1 << numEpidemics) - 1, rng);
+        this.orderHash = this.computeOrderHash();
     } // insertEpidemics()
 
+    /** spreadEpidemics()
+     * This is a helper method which puts an epidemic at a random place in some of the piles. The
+     * city cards must already be at the top of the cards that have not been drawn, and are moved
+     * down around the epidemics, working from the bottom of the deck up so that no card is written
+     * over before it is moved.
+     * @param start The index of the first card that has not been drawn.
+     * @param withEpidemic A bit for each pile that gets an epidemic.
+     * @param rng A random number generator, or null to put each epidemic on top of its pile.
+     */
+    private void spreadEpidemics(int start, int withEpidemic, GameRandom rng) {
+        int read = this.deck.length - Integer.bitCount(withEpidemic) - 1;
+        int numPiles = (63 - Long.numberOfLeadingZeros(this.piles)) / 8 + 1;
+        for(int i = numPiles - 1; i >= 0; i--) {
+            int end = (int) (this.piles >>> (8 * i) & 0xff);
+            int begin = i == 0 ? 0 : (int) (this.piles >>> (8 * (i - 1)) & 0xff);
+            begin = Math.max(begin, start);
+            if(end <= begin) {
+                break;
+            }
+
+            int pos = -1;
+            if((withEpidemic & (1 << i)) != 0) {
+                pos = rng == null ? begin : begin + rng.nextInt(end - begin);
+            }
+            for(int j = end - 1; j >= begin; j--) {
+                this.deck[this.slot(j)] = j == pos ? EPIDEMIC_CARD : this.deck[this.slot(read--)];
+            }
+        }
+    } // spreadEpidemics()
+
     /** getCity()
-     * This is a helper method which finds a city in the deck.
+     * This is a helper method which finds a card by its name, using the board's name index.
      * @param city The name of the city to find.
-     * @return The city.
+     * @return The city, or null if there is no such card.
      */
     public City getCity(String city) {
-        // iterate through the deck until we find the city name
-        for(int i = 0; i < this.deck.length; i++) {
-            if(this.deck[i].getName().equals(city)) {
-                return this.deck[i];
-            }
-        }
-        return null;
+        Board board = Board.getInstance();
+        int id = board.getCardId(city);
+        return id == NO_CARD ? null : board.getCard(id);
     } // getCity()
 
     /** drawBottomCard()
      * This method is called when an epidemic is pulled, and we need to pull the card on the bottom
-     * of the deck.
-     * @return The bottom card.
+     * of the deck. The bottom card is just before the start of the ring, so moving the start back
+     * one puts it on top of the discard pile without moving any other card.
+     * @return The id of the bottom card, or NO_CARD if the draw pile is empty.
      */
-    public City drawBottomCard() {
-        return this.deck[NUM_CITIES - 1];
+    public int drawBottomCard() {
+        if(this.currPos + 1 >= this.deck.length) {
+            return NO_CARD;
+        }
+        this.setHead(this.head == 0 ? this.deck.length - 1 : this.head - 1);
+        this.currPos++;
+
+        // every card moved down one, except for the bottom card, which left the last block
+        long known = 0;
+        for(int i = 0; i < MAX_BLOCKS; i++) {
+            int end = (int) (this.blocks >>> (8 * i) & 0xff);
+            if(end != 0) {
+                known |= (long) Math.min(end + 1, this.deck.length) << (8 * i);
+            }
+        }
+        this.blocks = known;
+
+        return this.deck[this.head];
     } // drawBottomCard()
 
     /** shuffleEpidemic()
-     * This method brings the bottom card up to the discard pile, shifting every card down, and then
-     * shuffles only the discard pile.
+     * This method shuffles only the discard pile, in place, and puts it back on top of the draw
+     * pile, which is the intensify step of an epidemic. The shuffled cards become a new known
+     * block. A game has PandemicState.NUM_EPIDEMICS intensify steps, which is fewer than
+     * MAX_BLOCKS, so the blocks never run out in a real game. If they do, the two deepest blocks
+     * are merged into one, which keeps which cards are in them but not which of the two each card
+     * was in.
+     * @param rng A random number generator.
      */
-    public void shuffleEpidemic() {
-        // shift all cards up
-        City temp = this.deck[NUM_CITIES - 1];
-        for(int i = NUM_CITIES - 1; i > this.currPos + 1; i--) {
-            this.deck[i] = this.deck[i - 1];
-        }
-        // in order to put the new card onto the discard pile
-        this.deck[this.currPos + 1] = temp;
+    public void shuffleEpidemic(GameRandom rng) {
+        this.own();
 
-        // now we shuffle only the discard pile, shuffle is arbitrary
-        int shuffle = 500;
-        Random rng = new Random();
-        for(int i = 0; i < shuffle; i++) {
-            int card1 = rng.nextInt(this.currPos + 2);
-            int card2 = rng.nextInt(this.currPos + 2);
+        // only the discard pile moves, so only its part of the hash changes
+        int size = this.currPos + 1;
+        this.orderHash ^= this.hashRange(0, size);
+        this.shuffleRange(0, size, rng);
+        this.orderHash ^= this.hashRange(0, size);
 
-            City swap = this.deck[card1];
-            this.deck[card1] = this.deck[card2];
-            this.deck[card2] = swap;
+        // the shuffled cards are a new block on top, above the blocks that have not been drawn
+        long known = size;
+        int num = 1;
+        for(long b = this.blocks; b != 0; b >>>= 8) {
+            int end = (int) (b & 0xff);
+            if(end > size) {
+                if(num == MAX_BLOCKS) {
+                    // the deepest block so far is stretched down to the end of this one
+                    num--;
+                    known &= ~(0xffL << (8 * num));
+                }
+                known |= (long) end << (8 * num++);
+            }
         }
+        this.blocks = known;
 
         this.currPos = -1;
     } // shuffleEpidemic()
 
+    /** shuffleRange()
+     * This is a helper method which shuffles part of the deck with a Fisher-Yates shuffle, even if
+     * it wraps around the end of the array. The hash is not changed.
+     * @param from The index of the first card to shuffle, from the top of the discard pile.
+     * @param to One past the index of the last card to shuffle.
+     * @param rng A random number generator.
+     */
+    private void shuffleRange(int from, int to, GameRandom rng) {
+        if(this.head + to <= this.deck.length) {
+            rng.shuffle(this.deck, this.head + from, this.head + to);
+            return;
+        }
+        for(int i = to - 1; i > from; i--) {
+            int a = this.slot(i);
+            int b = this.slot(from + rng.nextInt(i - from + 1));
+            int temp = this.deck[a];
+            this.deck[a] = this.deck[b];
+            this.deck[b] = temp;
+        }
+    } // shuffleRange()
+
+    /** hashRange()
+     * This is a helper method which hashes part of the deck.
+     * @param from The index of the first card, from the top of the discard pile.
+     * @param to One past the index of the last card.
+     * @return The XOR of the keys of those cards.
+     */
+    private long hashRange(int from, int to) {
+        long hash = 0;
+        for(int i = from; i < to; i++) {
+            int slot = this.slot(i);
+            hash ^= Zobrist.deckCard(slot, this.deck[slot]);
+        }
+        return hash;
+    } // hashRange()
+
+    /** shuffleUnknown()
+     * This method shuffles the cards that have not been drawn, but only in ways the players could
+     * not tell apart: the cards left in each known block are shuffled within that block, and the
+     * cards under the blocks are shuffled among themselves. This gives one possible order of the
+     * deck, as far as the players know, which a bot can plan against without seeing the real one.
+     * @param rng A random number generator.
+     */
+    public void shuffleUnknown(GameRandom rng) {
+        this.own();
+        int start = this.currPos + 1;
+        for(long b = this.blocks; b != 0; b >>>= 8) {
+            int end = (int) (b & 0xff);
+            if(end > start) {
+                this.shuffleRange(start, end, rng);
+                start = end;
+            }
+        }
+
+        if(this.piles == 0) {
+            this.shuffleRange(start, this.deck.length, rng);
+        }
+        else {
+            // the city cards can be in any pile, but each pile keeps its epidemic if it still has
+            // one, so move the city cards to the top, shuffle them, and spread the epidemics again
+            int withEpidemic = 0;
+            int pile = 0;
+            int cities = start;
+            for(int i = start; i < this.deck.length; i++) {
+                while(i >= (int) (this.piles >>> (8 * pile) & 0xff)) {
+                    pile++;
+                }
+                int card = this.deck[this.slot(i)];
+                if(card == EPIDEMIC_CARD) {
+                    withEpidemic |= 1 << pile;
+                }
+                else {
+                    this.deck[this.slot(cities++)] = card;
+                }
+            }
+            this.shuffleRange(start, cities, rng);
+            this.spreadEpidemics(start, withEpidemic, rng);
+        }
+        this.orderHash = this.computeOrderHash();
+    } // shuffleUnknown()
+
+    /** setBlocks()
+     * This method sets which parts of the deck the players know the cards of.
+     * @param blocks The index just past the end of each known block, a byte each, from the top of
+     * the deck down, with 0 after the last block.
+     */
+    public void setBlocks(long blocks) {
+        this.blocks = blocks;
+    } // setBlocks()
+
+    /** getPiles()
+     * @return The index just past the end of each pile that an epidemic was shuffled into, a byte
+     * each, from the top of the deck down, with 0 after the last pile.
+     */
+    public long getPiles() {
+        return this.piles;
+    } // getPiles()
+
+    /** getBlocks()
+     * @return The index just past the end of each known block, a byte each, from the top of the
+     * deck down, with 0 after the last block.
+     */
+    public long getBlocks() {
+        return this.blocks;
+    } // getBlocks()
+
     /** getCurrPos()
      * @return The current position of the deck.
      */
@@ -145,21 +723,93 @@ public class Deck {
      * @return The size of the deck.
      */
     public int getDeckSize() {
-        int count = 0;
+        return this.deck.length;
+    } // getDeckSize()
+
+    /** getCardsLeft()
+     * @return The number of cards that have not been drawn yet.
+     */
+    public int getCardsLeft() {
+        return this.deck.length - this.currPos - 1;
+    } // getCardsLeft()
+
+    /** getCardAtIndex()
+     * @param idx The index of the deck.
+     * @return The id of the card at that given index.
+     */
+    public int getCardAtIndex(int idx) {
+        return this.deck[this.slot(idx)];
+    } // getCardAtIndex()
+
+    /** setCardAtIndex()
+     * This method puts a card at an index of the deck, which is used to undo a shuffle.
+     * @param idx The index of the deck.
+     * @param card The id of the card.
+     */
+    public void setCardAtIndex(int idx, int card) {
+        this.own();
+        int slot = this.slot(idx);
+        this.orderHash ^= Zobrist.deckCard(slot, this.deck[slot]) ^ Zobrist.deckCard(slot, card);
+        this.deck[slot] = card;
+    } // setCardAtIndex()
+
+    /** setCurrPos()
+     * This method moves the current position of the deck, which is used to undo draws.
+     * @param pos The new position.
+     */
+    public void setCurrPos(int pos) {
+        this.currPos = pos;
+    } // setCurrPos()
+
+    /** getHead()
+     * @return Where the top of the discard pile is in the array.
+     */
+    public int getHead() {
+        return this.head;
+    } // getHead()
+
+    /** setHead()
+     * This method moves the start of the ring, which is used to undo drawing the bottom card.
+     * @param head Where the top of the discard pile is in the array.
+     */
+    public void setHead(int head) {
+        this.orderHash ^= Zobrist.deckHead(this.head) ^ Zobrist.deckHead(head);
+        this.head = head;
+    } // setHead()
+
+    /** getHash()
+     * @return The Zobrist hash of the deck, which covers the order of the cards in the array, the
+     * start of the ring and the current position. It is kept up to date as the deck changes.
+     */
+    public long getHash() {
+        return this.orderHash ^ Zobrist.deckPosition(this.currPos);
+    } // getHash()
+
+    /** computeHash()
+     * This method works out the hash of the deck from scratch, to check getHash() against.
+     * @return The Zobrist hash of the deck.
+     */
+    public long computeHash() {
+        return this.computeOrderHash() ^ Zobrist.deckPosition(this.currPos);
+    } // computeHash()
+
+    /** computeOrderHash()
+     * This is a helper method which hashes the order of the cards.
+     * @return The hash of the order.
+     */
+    private long computeOrderHash() {
+        long hash = Zobrist.deckHead(this.head);
         for(int i = 0; i < this.deck.length; i++) {
-            if(!this.deck[i].getName().equals("NULL")) {
-                count++;
-            }
+            hash ^= Zobrist.deckCard(i, this.deck[i]);
         }
-
-        return count;
-    } // getDeckSize()
+        return hash;
+    } // computeOrderHash()
 
     /** getCityAtIndex()
      * @param idx The index of the deck.
      * @return The city at that given index.
      */
     public City getCityAtIndex(int idx) {
-        return this.deck[idx];
+        return Board.getInstance().getCard(this.deck[this.slot(idx)]);
     } // getCityAtIndex()
 }
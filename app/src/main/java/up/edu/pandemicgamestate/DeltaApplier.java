@@ -0,0 +1,52 @@
+package up.edu.pandemicgamestate;
+
+import java.nio.ByteBuffer;
+
+/** DeltaApplier
+ * This brings a copy of a game state up to date with the deltas made by a DeltaRecorder. The copy
+ * has to start out the same as the state the recorder was made with, for example by decoding a
+ * snapshot, and then every delta has to be applied in order.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class DeltaApplier {
+    // instance variables
+    private int sequence;
+
+    /** DeltaApplier()
+     * This constructor makes an applier for a copy that has not had any deltas applied yet.
+     */
+    public DeltaApplier() {
+        this(0);
+    } // DeltaApplier()
+
+    /** DeltaApplier()
+     * @param sequence The sequence number of the first delta to apply, which is the recorder's
+     * getSequence() at the time the copy was made.
+     */
+    public DeltaApplier(int sequence) {
+        this.sequence = sequence;
+    } // DeltaApplier()
+
+    /** apply()
+     * This method applies the next delta to the copy.
+     * @param delta The delta, from its position.
+     * @param state The copy of the state.
+     * @throws IllegalStateException If the delta is not the next one in order.
+     */
+    public void apply(ByteBuffer delta, PackedState state) {
+        int seq = delta.getInt();
+        if(seq != this.sequence) {
+            throw new IllegalStateException("Expected delta " + this.sequence + " but got " + seq);
+        }
+        state.applyDelta(delta);
+        this.sequence++;
+    } // apply()
+
+    /** getSequence()
+     * @return The sequence number of the next delta to apply.
+     */
+    public int getSequence() {
+        return this.sequence;
+    } // getSequence()
+}
@@ -0,0 +1,18 @@
+package up.edu.pandemicgamestate;
+
+import java.nio.ByteBuffer;
+
+/** DeltaListener
+ * This is told about every change to a game state, as a delta that can be sent to the other
+ * players and applied to their copies with a DeltaApplier.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public interface DeltaListener {
+    /** onDelta()
+     * This method is called after every successful action.
+     * @param delta The delta, from its position to its limit. The buffer is reused for the next
+     * delta, so it has to be sent or copied before this method returns.
+     */
+    void onDelta(ByteBuffer delta);
+}
@@ -0,0 +1,89 @@
+package up.edu.pandemicgamestate;
+
+import java.nio.ByteBuffer;
+
+/** DeltaRecorder
+ * This keeps track of what a game state looked like the last time it was recorded, so that each
+ * change can be sent as a small delta instead of a whole copy of the state. The earlier state is
+ * kept in one baseline copy with its own arrays, which is made once and then brought up to date
+ * with copyFrom() after every delta, so recording allocates nothing and never touches the game
+ * state itself. The arrays are small, so comparing them with the baseline is quick.
+ *
+ * A recorder writes either full deltas, which include the order of the decks and the seed and are
+ * only meant for keeping a saved copy up to date, or public deltas, which only include what the
+ * players can see and are meant to be sent to their devices.
+ *
+ * Each delta starts with a sequence number, so that a DeltaApplier can tell if one went missing.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class DeltaRecorder {
+    // the most bytes one delta can take, which is when every part of the state has changed
+    public static final int MAX_DELTA_SIZE = 1024;
+
+    // instance variables
+    private final PackedState baseline;
+    private final boolean full;
+    private int version;
+    private int sequence;
+    private final ByteBuffer buffer;
+
+    /** DeltaRecorder()
+     * This constructor makes a recorder of full deltas.
+     * @param state The state that changes will be recorded from.
+     */
+    public DeltaRecorder(PackedState state) {
+        this(state, true);
+    } // DeltaRecorder()
+
+    /** DeltaRecorder()
+     * @param state The state that changes will be recorded from.
+     * @param full Whether to write full deltas instead of public ones.
+     */
+    public DeltaRecorder(PackedState state, boolean full) {
+        // the copy constructor would share the arrays of the game, so the baseline is decoded
+        this.buffer = ByteBuffer.allocate(MAX_DELTA_SIZE);
+        state.encode(this.buffer);
+        this.buffer.flip();
+        this.baseline = new PackedState(this.buffer);
+
+        this.full = full;
+        this.version = state.getVersion();
+        this.sequence = 0;
+    } // DeltaRecorder()
+
+    /** record()
+     * This method writes everything that has changed in the state since the last time it was
+     * recorded. If nothing has changed, the delta is empty and the state is not compared at all.
+     * @param state The state, which must be the same game the recorder was made with.
+     * @return The delta, from its position to its limit. The buffer is reused by the next call.
+     */
+    public ByteBuffer record(PackedState state) {
+        this.buffer.clear();
+        this.buffer.putInt(this.sequence++);
+        if(state.getVersion() == this.version) {
+            // the baseline has nothing to tell apart from itself, so this is just the end record
+            this.baseline.writeDelta(this.baseline, this.buffer);
+        }
+        else if(this.full) {
+            state.writeDelta(this.baseline, this.buffer);
+        }
+        else {
+            state.writePublicDelta(this.baseline, this.buffer);
+        }
+        this.buffer.flip();
+
+        if(state.getVersion() != this.version) {
+            this.baseline.copyFrom(state);
+            this.version = state.getVersion();
+        }
+        return this.buffer;
+    } // record()
+
+    /** getSequence()
+     * @return The sequence number of the next delta.
+     */
+    public int getSequence() {
+        return this.sequence;
+    } // getSequence()
+}
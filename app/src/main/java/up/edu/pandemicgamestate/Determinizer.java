@@ -0,0 +1,75 @@
+package up.edu.pandemicgamestate;
+
+/** Determinizer
+ * This class makes determinized copies of a game: states that look the same to the players, but
+ * where the order of every card they have not seen has been dealt again at random. A bot that
+ * plays out these copies, instead of the real state, can not cheat by knowing which cards come
+ * next. Only the unseen parts of each deck are shuffled, so anything the players have learned
+ * (such as which cards an epidemic put back on top of the infection deck) is kept.
+ *
+ * The copies are written into a small pool of states that is made once and then reused, so making
+ * a copy does not create any objects. A determinizer is not thread safe, so each thread of a
+ * search should have its own.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class Determinizer {
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    // instance variables
+    private final PackedState[] pool;
+    private int next;
+
+    /** Determinizer()
+     * This constructor makes a pool of DEFAULT_POOL_SIZE states.
+     * @param template Any state of the game, which sets the size of the states in the pool.
+     */
+    public Determinizer(PackedState template) {
+        this(template, DEFAULT_POOL_SIZE);
+    } // Determinizer()
+
+    /** Determinizer()
+     * @param template Any state of the game, which sets the size of the states in the pool.
+     * @param poolSize The number of states in the pool, which is how many copies can be in use at
+     * once before the first one is written over.
+     */
+    public Determinizer(PackedState template, int poolSize) {
+        if(poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be at least 1, was " + poolSize);
+        }
+
+        this.pool = new PackedState[poolSize];
+        for(int i = 0; i < poolSize; i++) {
+            this.pool[i] = new PackedState(template);
+        }
+    } // Determinizer()
+
+    /** next()
+     * This method makes a determinized copy of a state in the next state of the pool. The copy
+     * stays good until the pool comes back around to it.
+     * @param observed The state as the players see it, which is not changed.
+     * @param rng A random number generator.
+     * @return The copy.
+     */
+    public PackedState next(PackedState observed, GameRandom rng) {
+        PackedState into = this.pool[this.next];
+        this.next = (this.next + 1) % this.pool.length;
+        sample(observed, rng, into);
+        return into;
+    } // next()
+
+    /** sample()
+     * This method makes a determinized copy of a state: a copy where the cards left in each deck
+     * have been shuffled only where the players do not know their order, and the random number
+     * generator of the copy has a new seed, so that later shuffles are not known either.
+     * @param observed The state as the players see it, which is not changed.
+     * @param rng A random number generator.
+     * @param into The state to write the copy into.
+     */
+    public static void sample(PackedState observed, GameRandom rng, PackedState into) {
+        into.copyFrom(observed);
+        into.getInfectionDeck().shuffleUnknown(rng);
+        into.getPlayerDeck().shuffleUnknown(rng);
+        into.getRandom().setSeed(rng.nextLong());
+    } // sample()
+}
@@ -0,0 +1,176 @@
+package up.edu.pandemicgamestate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** GameRandom
+ * This is a small, fast random number generator for shuffling decks and playing out games. It
+ * works like SplittableRandom (a SplitMix64 generator), which Android does not have before API 24:
+ * the same seed always gives the same numbers, and split() makes an independent generator for
+ * another thread, so threads never have to share one generator. It is not thread safe.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class GameRandom {
+    // the amount the seed moves forward for every number (the golden ratio, as a 64-bit fraction)
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    // makes sure generators created at the same moment still get different seeds
+    private static final AtomicLong seeder = new AtomicLong(System.nanoTime());
+
+    // instance variables
+    private long seed;
+    private long gamma;
+
+    /** GameRandom()
+     * This constructor makes a generator with a seed that is different every time.
+     */
+    public GameRandom() {
+        this(mix(seeder.getAndAdd(GAMMA) ^ System.nanoTime()));
+    } // GameRandom()
+
+    /** GameRandom()
+     * @param seed The seed, which decides every number the generator gives.
+     */
+    public GameRandom(long seed) {
+        this(seed, GAMMA);
+    } // GameRandom()
+
+    /** GameRandom()
+     * @param seed The seed, which decides every number the generator gives.
+     * @param gamma The amount the seed moves forward for every number, which must be odd.
+     */
+    private GameRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    } // GameRandom()
+
+    /** GameRandom()
+     * This is a copy constructor. The copy gives the same numbers as the original from here on.
+     * @param orig The generator being copied.
+     */
+    public GameRandom(GameRandom orig) {
+        this.seed = orig.seed;
+        this.gamma = orig.gamma;
+    } // GameRandom()
+
+    /** copyFrom()
+     * @param orig The generator whose position this generator takes on.
+     */
+    public void copyFrom(GameRandom orig) {
+        this.seed = orig.seed;
+        this.gamma = orig.gamma;
+    } // copyFrom()
+
+    /** setSeed()
+     * @param seed The new seed, which decides every number the generator gives from here on.
+     * The step the seed moves by is kept, so a generator made by split() stays its own stream.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    } // setSeed()
+
+    /** getSeed()
+     * @return The current seed, which can be given to setSeed() to carry on from this point.
+     */
+    public long getSeed() {
+        return this.seed;
+    } // getSeed()
+
+    /** split()
+     * This method makes a new generator whose numbers do not follow the numbers of this one, so
+     * that it can be handed to another thread or game. Like SplittableRandom, the new generator
+     * also gets its own step (gamma) made from the next seed, so two generators that happen to
+     * start close together still walk through different sequences of seeds.
+     * @return The new generator.
+     */
+    public GameRandom split() {
+        long childSeed = this.nextLong();
+        this.seed += this.gamma;
+        return new GameRandom(childSeed, mixGamma(this.seed));
+    } // split()
+
+    /** nextLong()
+     * @return A random long.
+     */
+    public long nextLong() {
+        this.seed += this.gamma;
+        return mix(this.seed);
+    } // nextLong()
+
+    /** nextInt()
+     * @return A random int.
+     */
+    public int nextInt() {
+        return (int) (this.nextLong() >>> 32);
+    } // nextInt()
+
+    /** nextInt()
+     * @param bound The upper bound, which must be positive.
+     * @return A random int from 0 up to but not including the bound, with every value equally
+     * likely.
+     */
+    public int nextInt(int bound) {
+        int r = (int) (this.nextLong() >>> 33);
+        int m = bound - 1;
+        if((bound & m) == 0) {
+            // the bound is a power of two, so the top bits can be used as they are
+            return (int) ((bound * (long) r) >> 31);
+        }
+
+        // throw away the few values at the top which would make the lower results more likely
+        for(int u = r; u - (r = u % bound) + m < 0; u = (int) (this.nextLong() >>> 33)) {
+            // draw again
+        }
+        return r;
+    } // nextInt()
+
+    /** nextDouble()
+     * @return A random double from 0 up to but not including 1.
+     */
+    public double nextDouble() {
+        return (this.nextLong() >>> 11) * 0x1.0p-53;
+    } // nextDouble()
+
+    /** shuffle()
+     * This method shuffles part of an array with a Fisher-Yates shuffle, which uses one random
+     * number per card and gives every order the same chance.
+     * @param arr The array to shuffle.
+     * @param from The first index to shuffle.
+     * @param to One past the last index to shuffle.
+     */
+    public void shuffle(int[] arr, int from, int to) {
+        for(int i = to - 1; i > from; i--) {
+            int j = from + this.nextInt(i - from + 1);
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    } // shuffle()
+
+    /** mix()
+     * This is a helper method which scrambles the bits of a long, so that seeds which are close
+     * together give numbers that are not.
+     * @param z The long to scramble.
+     * @return The scrambled long.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    } // mix()
+
+    /** mixGamma()
+     * This is a helper method which turns a seed into the step of a new generator, the same way
+     * SplittableRandom does: the step is always odd, so every seed is visited before any repeats,
+     * and a step with too few changes between neighbouring bits is flipped to one with more.
+     * @param z The seed to make the step from.
+     * @return The step.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return n < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    } // mixGamma()
+}
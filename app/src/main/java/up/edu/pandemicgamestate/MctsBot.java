@@ -0,0 +1,471 @@
+package up.edu.pandemicgamestate;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** MctsBot
+ * This is a computer player which picks moves for the current player with Monte Carlo Tree
+ * Search. Each search plays thousands of short games from the current state, and the move that
+ * was tried the most is the one chosen.
+ *
+ * Several threads search the same tree at once. A thread walking down the tree adds a "virtual
+ * loss" to every node it passes, which makes the other threads try different moves until its
+ * result comes back. The random parts of the game (card draws and shuffles) are drawn again for
+ * every game played, so the tree is a tree of moves rather than of exact states.
+ *
+ * A search stops at its time limit, or when it is cancelled, and the best move so far can be asked
+ * for at any time. After a move is made, advance() keeps the part of the tree under that move for
+ * the next search. searchAsync() runs a search without blocking the caller, for the UI thread.
+ * A bot runs one search at a time.
+ *
+ * Different orders of moves often reach the same position, such as driving to two cities in
+ * either order. The value of each position that has been played out is kept in a transposition
+ * table, and once a position has been played out TABLE_SAMPLES times, by any path through the
+ * tree, its average is used instead of playing it out again.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class MctsBot {
+    // search variables
+    public static final int DEFAULT_ROLLOUT_TURNS = 3;
+    private static final double EXPLORATION = 0.7;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int EXPAND_VISITS = 2;
+    private static final int MAX_DEPTH = 64;
+
+    // the transposition table: its size, and how many games a position's average is taken from
+    public static final int TABLE_BUCKETS = 1 << 15;
+    public static final int TABLE_SAMPLES = 16;
+
+    // rewards are added up as fixed point numbers, so that they can be updated without locks
+    private static final double SCALE = 1000000.0;
+
+    // instance variables
+    private final int numThreads;
+    private final int rolloutTurns;
+    private final Policy rollout;
+    private final ExecutorService pool;
+    private final ExecutorService async;
+    private final AtomicLong seeds;
+    private final TranspositionTable table;
+
+    private volatile Node root;
+    private volatile long rootHash;
+    private volatile boolean cancelled;
+    private final AtomicInteger iterations = new AtomicInteger();
+
+    /** MctsBot()
+     * This constructor makes a bot which searches with one thread per core and plays out random
+     * moves.
+     */
+    public MctsBot() {
+        this(Runtime.getRuntime().availableProcessors(), new RandomPolicy(),
+                DEFAULT_ROLLOUT_TURNS, System.nanoTime());
+    } // MctsBot()
+
+    /** MctsBot()
+     * @param numThreads The number of threads that search the tree.
+     * @param rollout The policy used to play out the turns after a new node.
+     * @param rolloutTurns How many turns to play out before scoring the state.
+     * @param seed The seed for the random draws of the searches.
+     */
+    public MctsBot(int numThreads, Policy rollout, int rolloutTurns, long seed) {
+        this(numThreads, rollout, rolloutTurns, seed, new TranspositionTable(TABLE_BUCKETS));
+    } // MctsBot()
+
+    /** MctsBot()
+     * @param numThreads The number of threads that search the tree.
+     * @param rollout The policy used to play out the turns after a new node.
+     * @param rolloutTurns How many turns to play out before scoring the state.
+     * @param seed The seed for the random draws of the searches.
+     * @param table The transposition table for the values of the positions played out, which
+     * can be made with counting turned on to see how often it helps.
+     */
+    public MctsBot(int numThreads, Policy rollout, int rolloutTurns, long seed,
+                   TranspositionTable table) {
+        this.table = table;
+        this.numThreads = Math.max(1, numThreads);
+        this.rolloutTurns = rolloutTurns;
+        this.rollout = rollout;
+        this.pool = Executors.newFixedThreadPool(this.numThreads);
+
+        // searchAsync() waits on the searchers from its own thread, outside of the pool
+        this.async = Executors.newSingleThreadExecutor();
+        this.seeds = new AtomicLong(seed);
+    } // MctsBot()
+
+    /** search()
+     * This method searches for the best move for the current player, and waits until it is done.
+     * @param state The state of the game, which is not changed.
+     * @param millis How long to search for, in milliseconds.
+     * @return The best move, made with Move.make(), or Move.make(PandemicState.PASS, 0) if the
+     * player has no moves.
+     */
+    public int search(PackedState state, long millis) {
+        this.cancelled = false;
+        PackedState start = new PackedState(state);
+        return this.runSearch(start, this.makeDeterminizers(start), millis);
+    } // search()
+
+    /** searchAsync()
+     * This method starts a search and returns straight away, so that the UI thread is not
+     * blocked. The result can be waited for with the Future, and the search can be stopped early
+     * with cancel(), which still gives the best move found so far. A cancel() made right after
+     * this method returns stops the search even if it has not started yet.
+     * @param state The state of the game, which should not be changed until the search is done.
+     * @param millis How long to search for, in milliseconds.
+     * @return The best move, once the search is done.
+     */
+    public Future<Integer> searchAsync(PackedState state, final long millis) {
+        this.cancelled = false;
+        final PackedState start = new PackedState(state);
+        final Determinizer[] dets = this.makeDeterminizers(start);
+        return this.async.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return runSearch(start, dets, millis);
+            }
+        });
+    } // searchAsync()
+
+    /** makeDeterminizers()
+     * This is a helper method which makes a determinizer for each search thread, whose one
+     * pooled state is the state that thread plays its games on. Making the pool copies the
+     * state, which marks the arrays of the state as shared, so it is done on the calling thread
+     * rather than by the search threads at the same time.
+     * @param start The state at the root.
+     * @return A determinizer for each thread.
+     */
+    private Determinizer[] makeDeterminizers(PackedState start) {
+        Determinizer[] dets = new Determinizer[this.numThreads];
+        for(int i = 0; i < dets.length; i++) {
+            dets[i] = new Determinizer(start, 1);
+        }
+        return dets;
+    } // makeDeterminizers()
+
+    /** runSearch()
+     * This is a helper method which runs a search on the search threads and waits for it.
+     * @param start The state at the root, which is not changed.
+     * @param dets A determinizer for each thread, from makeDeterminizers().
+     * @param millis How long to search for, in milliseconds.
+     * @return The best move.
+     */
+    private int runSearch(final PackedState start, Determinizer[] dets, long millis) {
+        final long deadline = System.nanoTime() + millis * 1000000L;
+        this.table.newSearch();
+
+        // keep the tree from the last search if it was advanced to this state
+        if(this.root == null || this.rootHash != start.getHash()) {
+            this.root = new Node(Move.make(PandemicState.PASS, Move.NO_TARGET));
+            this.rootHash = start.getHash();
+        }
+        final Node top = this.root;
+
+        Future<?>[] workers = new Future<?>[this.numThreads];
+        for(int i = 0; i < this.numThreads; i++) {
+            final long seed = this.seeds.getAndAdd(0x9e3779b97f4a7c15L);
+            final Determinizer det = dets[i];
+            workers[i] = this.pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    searchLoop(top, start, det, deadline, seed);
+                }
+            });
+        }
+        for(int i = 0; i < workers.length; i++) {
+            try {
+                workers[i].get();
+            }
+            catch(InterruptedException e) {
+                this.cancel();
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch(ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+        return this.getBestMove();
+    } // runSearch()
+
+    /** cancel()
+     * This method stops the current search as soon as each thread finishes the game it is on.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    } // cancel()
+
+    /** advance()
+     * This method is called after a move is made, and keeps the part of the tree under that move
+     * so the next search does not start from nothing. Only moves within a turn keep the tree,
+     * since the moves under an end of turn were found with cards that may not be the ones drawn.
+     * @param move The move that was made.
+     * @param state The state after the move.
+     */
+    public void advance(int move, PackedState state) {
+        Node top = this.root;
+        Node next = null;
+        Node[] kids = top == null ? null : top.children;
+        if(kids != null && Move.getType(move) != PandemicState.END_TURN) {
+            for(int i = 0; i < kids.length; i++) {
+                if(kids[i].move == move) {
+                    next = kids[i];
+                    break;
+                }
+            }
+        }
+        this.root = next;
+        this.rootHash = state.getHash();
+    } // advance()
+
+    /** getBestMove()
+     * This method can be called during a search to get the best move so far.
+     * @return The move at the root which has been tried the most.
+     */
+    public int getBestMove() {
+        Node top = this.root;
+        Node[] kids = top == null ? null : top.children;
+        if(kids == null || kids.length == 0) {
+            return Move.make(PandemicState.PASS, Move.NO_TARGET);
+        }
+        Node best = kids[0];
+        for(int i = 1; i < kids.length; i++) {
+            if(kids[i].visits.get() > best.visits.get()) {
+                best = kids[i];
+            }
+        }
+        return best.move;
+    } // getBestMove()
+
+    /** getIterations()
+     * @return The number of games played by all searches so far.
+     */
+    public int getIterations() {
+        return this.iterations.get();
+    } // getIterations()
+
+    /** getRootVisits()
+     * @return The number of games played through the root of the tree, which counts the games
+     * of every search that the tree was kept for.
+     */
+    public int getRootVisits() {
+        Node top = this.root;
+        return top == null ? 0 : top.visits.get();
+    } // getRootVisits()
+
+    /** getTable()
+     * @return The transposition table of the values of the positions played out.
+     */
+    public TranspositionTable getTable() {
+        return this.table;
+    } // getTable()
+
+    /** shutdown()
+     * This method stops the bot's threads once it is no longer needed.
+     */
+    public void shutdown() {
+        this.cancel();
+        this.pool.shutdown();
+        this.async.shutdown();
+    } // shutdown()
+
+    /** searchLoop()
+     * This is a helper method run by each search thread, which plays games from the root until
+     * time runs out.
+     * @param top The root of the tree.
+     * @param start The state at the root.
+     * @param det This thread's determinizer.
+     * @param deadline When to stop, from System.nanoTime().
+     * @param seed The seed of this thread's random draws.
+     */
+    private void searchLoop(Node top, PackedState start, Determinizer det, long deadline,
+                            long seed) {
+        GameRandom rng = new GameRandom(seed);
+        Node[] path = new Node[MAX_DEPTH + 1];
+        int[] moves = new int[Move.MAX_MOVES];
+
+        while(!this.cancelled && System.nanoTime() < deadline) {
+            // play against a deal of the unseen cards, not the real one
+            PackedState work = det.next(start, rng);
+
+            // selection: walk down the tree, adding virtual losses on the way
+            Node node = top;
+            node.visits.addAndGet(VIRTUAL_LOSS);
+            path[0] = node;
+            int depth = 0;
+            while(depth < MAX_DEPTH && work.getGameCondition() == PandemicState.PLAY) {
+                Node[] kids = node.children;
+                if(kids == null) {
+                    if(node != top && node.visits.get() < EXPAND_VISITS + VIRTUAL_LOSS) {
+                        break;
+                    }
+                    kids = node.expand(work, moves);
+                }
+                if(kids.length == 0) {
+                    break;
+                }
+
+                Node child = this.select(node, kids);
+                child.visits.addAndGet(VIRTUAL_LOSS);
+                path[++depth] = child;
+                node = child;
+
+                // a move can stop working when the cards are drawn differently
+                if(!Move.apply(work, child.move)) {
+                    break;
+                }
+            }
+
+            // rollout and backpropagation: the players all win or lose together, so every node
+            // on the path gets the same reward
+            long reward = this.leafValue(work);
+            for(int i = depth; i >= 0; i--) {
+                path[i].visits.addAndGet(1 - VIRTUAL_LOSS);
+                path[i].value.addAndGet(reward);
+                path[i] = null;
+            }
+            this.iterations.incrementAndGet();
+        }
+    } // searchLoop()
+
+    /** select()
+     * This is a helper method which picks the child to walk down to, by how well it has done and
+     * how little it has been tried (UCT).
+     * @param parent The node.
+     * @param kids The children of the node.
+     * @return The chosen child.
+     */
+    private Node select(Node parent, Node[] kids) {
+        double logParent = Math.log(Math.max(1, parent.visits.get()));
+        Node best = kids[0];
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < kids.length; i++) {
+            int visits = kids[i].visits.get();
+            if(visits == 0) {
+                return kids[i];
+            }
+            double mean = kids[i].value.get() / SCALE / visits;
+            double score = mean + EXPLORATION * Math.sqrt(logParent / visits);
+            if(score > bestScore) {
+                bestScore = score;
+                best = kids[i];
+            }
+        }
+        return best;
+    } // select()
+
+    /** leafValue()
+     * This is a helper method which finds the reward for the state at the end of a walk down the
+     * tree. If the position has been played out TABLE_SAMPLES times already, the average from the
+     * transposition table is used. Otherwise it is played out, and the result is added to the
+     * average, where the depth of an entry counts the games in it.
+     * @param work The state, which is played in place.
+     * @return The reward, scaled by SCALE.
+     */
+    private long leafValue(PackedState work) {
+        if(work.getGameCondition() != PandemicState.PLAY) {
+            return (long) (evaluate(work) * SCALE);
+        }
+        long key = TranspositionTable.key(work);
+        long entry = this.table.probe(key);
+        int samples = 0;
+        long mean = 0;
+        if(entry != TranspositionTable.MISS) {
+            samples = TranspositionTable.getDepth(entry);
+            mean = TranspositionTable.getValue(entry);
+        }
+        if(samples >= TABLE_SAMPLES) {
+            return mean;
+        }
+
+        long reward = (long) (this.rollout(work) * SCALE);
+        this.table.store(key, (int) ((mean * samples + reward) / (samples + 1)), 0, samples + 1);
+        return reward;
+    } // leafValue()
+
+    /** rollout()
+     * This is a helper method which plays out a few turns from a state and scores the result.
+     * @param work The state, which is played in place.
+     * @return The score, from 0 (lost) to 1 (won).
+     */
+    private double rollout(PackedState work) {
+        for(int i = 0; i < this.rolloutTurns
+                && work.getGameCondition() == PandemicState.PLAY; i++) {
+            if(!Simulator.playTurn(this.rollout, work, work.getRandom())) {
+                break;
+            }
+        }
+        return evaluate(work);
+    } // rollout()
+
+    /** evaluate()
+     * This method scores a state for the players. A won game is 1 and a lost game is 0. Anything
+     * in between is scored by how many diseases are cured, how many outbreaks there have been,
+     * and how close each disease is to running out of cubes.
+     * @param state The state.
+     * @return The score, from 0 to 1.
+     */
+    public static double evaluate(PackedState state) {
+        if(state.getGameCondition() == PandemicState.WIN) {
+            return 1;
+        }
+        if(state.getGameCondition() == PandemicState.LOSE) {
+            return 0;
+        }
+
+        double score = 0.4;
+        int fewestCubes = Disease.MAX_CUBES;
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            if(state.getDiseaseState(i) != Disease.UNCURED) {
+                score += 0.1;
+            }
+            fewestCubes = Math.min(fewestCubes, state.getCubesLeft(i));
+        }
+        score -= 0.3 * state.getOutbreaks() / PandemicState.MAX_OUTBREAKS;
+        score += 0.15 * fewestCubes / Disease.MAX_CUBES;
+        return Math.max(0.01, Math.min(0.99, score));
+    } // evaluate()
+
+    /** Node
+     * This is one move in the search tree, with how often it was tried and the total reward it
+     * got. The counts are atomic, so threads can update them without locks.
+     */
+    private static final class Node {
+        final int move;
+        final AtomicInteger visits = new AtomicInteger();
+        final AtomicLong value = new AtomicLong();
+        volatile Node[] children;
+
+        /** Node()
+         * @param move The move that leads to this node.
+         */
+        Node(int move) {
+            this.move = move;
+        } // Node()
+
+        /** expand()
+         * This method adds a child for every move from the state at this node. If two threads
+         * reach the node at once, only one of them adds the children.
+         * @param state The state at this node.
+         * @param moves An array to generate the moves into.
+         * @return The children.
+         */
+        synchronized Node[] expand(PackedState state, int[] moves) {
+            if(this.children == null) {
+                int num = Move.generate(state, moves);
+                Node[] kids = new Node[num];
+                for(int i = 0; i < num; i++) {
+                    kids[i] = new Node(moves[i]);
+                }
+                this.children = kids;
+            }
+            return this.children;
+        } // expand()
+    } // Node
+}
@@ -0,0 +1,150 @@
+package up.edu.pandemicgamestate;
+
+/** Move
+ * This class works with moves that are stored as a single int, which is the type of action in
+ * the low byte and its target (a city id, a card id, or another player) above it. The generate()
+ * method lists every move the current player can make into an array the caller keeps, so a bot
+ * can look at every move without anything being allocated.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class Move {
+    // the most moves a player can ever have at once, which is the size a move array needs to be
+    public static final int MAX_MOVES = 128;
+
+    // used for moves that do not have a target, such as treating a disease
+    public static final int NO_TARGET = 0;
+
+    private static final BoardGraph graph = Board.getInstance().getGraph();
+
+    // every city on the board
+    private static final long ALL_CITIES = (1L << Deck.NUM_CITIES) - 1;
+
+    /** Move()
+     * Moves are plain ints, so this class is never created.
+     */
+    private Move() {
+    } // Move()
+
+    /** make()
+     * @param type The type of action, such as PandemicState.DRIVE_FERRY.
+     * @param target The city id, card id or player the action is aimed at, or NO_TARGET.
+     * @return The move.
+     */
+    public static int make(int type, int target) {
+        return type | target << 8;
+    } // make()
+
+    /** getType()
+     * @param move The move.
+     * @return The type of action.
+     */
+    public static int getType(int move) {
+        return move & 0xff;
+    } // getType()
+
+    /** getTarget()
+     * @param move The move.
+     * @return The city id, card id or player the action is aimed at.
+     */
+    public static int getTarget(int move) {
+        return move >>> 8;
+    } // getTarget()
+
+    /** generate()
+     * This method lists every move the current player can make.
+     * @param state The state of the game.
+     * @param moves The array the moves are written into, which needs room for MAX_MOVES.
+     * @return The number of moves written.
+     */
+    public static int generate(PackedState state, int[] moves) {
+        int player = state.getCurrPlayer();
+        int legal = state.getLegalActions(player);
+        int curr = state.getCurrCity(player);
+        long hand = state.getHand(player);
+        int num = 0;
+
+        if((legal & (1 << PandemicState.DRIVE_FERRY)) != 0) {
+            num = addAll(moves, num, PandemicState.DRIVE_FERRY, graph.getNeighborMask(curr));
+        }
+        if((legal & (1 << PandemicState.DIRECT_FLIGHT)) != 0) {
+            // flying to the city the player is already in would only waste the card
+            num = addAll(moves, num, PandemicState.DIRECT_FLIGHT, hand & ~(1L << curr));
+        }
+        if((legal & (1 << PandemicState.CHARTER_FLIGHT)) != 0) {
+            num = addAll(moves, num, PandemicState.CHARTER_FLIGHT, ALL_CITIES & ~(1L << curr));
+        }
+        if((legal & (1 << PandemicState.SHUTTLE_FLIGHT)) != 0) {
+            num = addAll(moves, num, PandemicState.SHUTTLE_FLIGHT,
+                    state.getStations() & ~(1L << curr));
+        }
+        if((legal & (1 << PandemicState.TREAT)) != 0) {
+            moves[num++] = make(PandemicState.TREAT, NO_TARGET);
+        }
+        if((legal & (1 << PandemicState.BUILD)) != 0) {
+            moves[num++] = make(PandemicState.BUILD, NO_TARGET);
+        }
+        if((legal & (1 << PandemicState.SHARE)) != 0) {
+            // the card of the city can go either way, as long as one of the two players has it
+            for(int i = 0; i < state.getNumPlayers(); i++) {
+                if(i != player && state.getCurrCity(i) == curr
+                        && (PlayerHand.has(hand, curr) || state.hasCard(i, curr))) {
+                    moves[num++] = make(PandemicState.SHARE, i);
+                }
+            }
+        }
+        if((legal & (1 << PandemicState.CURE)) != 0) {
+            moves[num++] = make(PandemicState.CURE, NO_TARGET);
+        }
+        if((legal & (1 << PandemicState.DISCARD)) != 0) {
+            num = addAll(moves, num, PandemicState.DISCARD, hand);
+        }
+        if((legal & (1 << PandemicState.PASS)) != 0) {
+            moves[num++] = make(PandemicState.PASS, NO_TARGET);
+        }
+        if((legal & (1 << PandemicState.END_TURN)) != 0) {
+            moves[num++] = make(PandemicState.END_TURN, NO_TARGET);
+        }
+        return num;
+    } // generate()
+
+    /** apply()
+     * This method makes a move for the current player.
+     * @param state The state of the game.
+     * @param move The move.
+     * @return Whether the move was valid.
+     */
+    public static boolean apply(PackedState state, int move) {
+        int player = state.getCurrPlayer();
+        int target = getTarget(move);
+        switch(getType(move)) {
+            case PandemicState.DRIVE_FERRY: return state.driveFerry(player, target);
+            case PandemicState.DIRECT_FLIGHT: return state.directFlight(player, target);
+            case PandemicState.CHARTER_FLIGHT: return state.charterFlight(player, target);
+            case PandemicState.SHUTTLE_FLIGHT: return state.shuttleFlight(player, target);
+            case PandemicState.TREAT: return state.treat(player);
+            case PandemicState.BUILD: return state.buildStation(player);
+            case PandemicState.SHARE: return state.share(player, target);
+            case PandemicState.CURE: return state.cure(player);
+            case PandemicState.DISCARD: return state.discard(player, target);
+            case PandemicState.PASS: return state.forgoAction(player);
+            case PandemicState.END_TURN: return state.endTurn(player);
+            default: return false;
+        }
+    } // apply()
+
+    /** addAll()
+     * This is a helper method which adds a move for every city or card in a bitmask.
+     * @param moves The array of moves.
+     * @param num The number of moves already in the array.
+     * @param type The type of action.
+     * @param targets The bitmask of targets.
+     * @return The new number of moves.
+     */
+    private static int addAll(int[] moves, int num, int type, long targets) {
+        for(; targets != 0; targets &= targets - 1) {
+            moves[num++] = make(type, Long.numberOfTrailingZeros(targets));
+        }
+        return num;
+    } // addAll()
+}
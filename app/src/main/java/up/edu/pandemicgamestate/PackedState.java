@@ -0,0 +1,1998 @@
+package up.edu.pandemicgamestate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/** PackedState
+ * This is a compact version of the Pandemic game state, which keeps everything in primitive arrays
+ * indexed by card id instead of in City objects. PandemicState performs all of its actions on top
+ * of this.
+ *
+ * Copying a state does not copy any arrays: the copy shares them with the original, and whichever
+ * of the two changes a shared array first makes its own copy of just that array. Most actions
+ * only change one or two arrays, so the rest stay shared for as long as both states exist.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class PackedState {
+    // the parts of a state which can be shared with copies of it, see own()
+    private static final int CUBES = 1;
+    private static final int DISEASES = 2;
+    private static final int HANDS = 4;
+    private static final int CITIES = 8;
+    private static final int ALL = CUBES | DISEASES | HANDS | CITIES;
+
+    // snapshot format variables, see encode()
+    public static final short SNAPSHOT_MAGIC = 0x5047;
+    public static final byte SNAPSHOT_VERSION = 1;
+    public static final int MAX_SNAPSHOT_SIZE = 192;
+
+    // the two forms of snapshot: everything, for saving a game, or only what the players can see,
+    // for sending to their devices
+    public static final byte SNAPSHOT_FULL = 0;
+    public static final byte SNAPSHOT_PUBLIC = 1;
+
+    // undo trail entry tags and sizes, see log()
+    private static final int TRAIL_CUBES = 0;
+    private static final int TRAIL_DISEASE = 1;
+    private static final int TRAIL_HAND = 2;
+    private static final int TRAIL_CITY = 3;
+    private static final int TRAIL_INFECTION_CARD = 4;
+    private static final int TRAIL_INFECTION_HEAD = 5;
+    private static final int ENTRY_SIZE = 3;
+    private static final int FRAME_SIZE = 17;
+
+    // delta record tags, see writeDelta()
+    private static final byte DELTA_END = 0;
+    private static final byte DELTA_CUBES = 1;
+    private static final byte DELTA_CUBES_LEFT = 2;
+    private static final byte DELTA_DISEASE = 3;
+    private static final byte DELTA_STATIONS = 4;
+    private static final byte DELTA_COUNTER = 5;
+    private static final byte DELTA_HAND = 6;
+    private static final byte DELTA_CITY = 7;
+    private static final byte DELTA_INFECTION_DECK = 8;
+    private static final byte DELTA_PLAYER_DECK = 9;
+    private static final byte DELTA_SEED = 10;
+    private static final byte DELTA_INFECTION_PUBLIC = 11;
+    private static final byte DELTA_PLAYER_PUBLIC = 12;
+    private static final int NUM_COUNTERS = 9;
+
+    // the board never changes, so it is shared by every state
+    private static final Board board = Board.getInstance();
+    private static final BoardGraph graph = board.getGraph();
+
+    // instance variables
+    private int[] cubesLeft;
+    private int[] diseaseStates;
+    private int outbreaks;
+
+    // the diseases that are cured and the diseases that have run out of cubes, a bit for each
+    // color, which are kept up to date as the diseases change so the end of the game is found
+    // without looking through the diseases
+    private int curedColors;
+    private int emptyColors;
+    private static final int ALL_COLORS = (1 << Disease.NUM_DISEASES) - 1;
+    private int infRate;
+    private int stationsLeft;
+
+    private byte[] cubes;
+    private long stations;
+
+    // the cube counts again as two bitmasks over the cities, the low bit and the high bit of each
+    // count, so the cities with some number of cubes can be found without looking at every city
+    private long cubesLow;
+    private long cubesHigh;
+
+    private int numPlayers;
+    private int currPlayer;
+    private int actionsLeft;
+    private boolean needToDiscard;
+    private int drawCardsLeft;
+
+    private long[] hands;
+    private int[] currCity;
+
+    private Deck infectionDeck;
+    private Deck playerDeck;
+    private int epiLeft;
+    private int gameCondition;
+
+    // the cities that broke out and the cities that got cubes in the last infection
+    private long lastOutbreaks;
+    private long lastInfected;
+
+    // the undo stack: the trail holds a frame for each pushUndo(), which is the counters at that
+    // time followed by the old value of every array entry changed since, see log()
+    private int[] trail;
+    private int trailSize;
+    private int[] frames;
+    private int depth;
+
+    // the Zobrist hash of the cubes, stations, hands, locations and diseases, see getHash()
+    private long hash;
+
+    // every random choice the game makes, such as shuffling after an epidemic, uses this
+    private GameRandom rng;
+
+    // the parts of the state that are not shared with any copies
+    private int owned;
+
+    // the version goes up whenever the state changes, and is used to know when the legal actions
+    // have to be checked again
+    private int version;
+    private int legalVersion;
+    private int legalPlayer;
+    private int legalActions;
+    private int[] reasons;
+
+    /** PackedState()
+     * This constructor sets up a new game with shuffled decks.
+     * @param num Number of players.
+     * @param rng A random number generator, which the game keeps using for its shuffles.
+     */
+    public PackedState(int num, GameRandom rng) {
+        // choose starting player at random
+        int first = rng.nextInt(num);
+
+        // both decks contain the same set of cities, but are shuffled separately
+        int[] infection = new int[Deck.NUM_CITIES];
+        int[] player = new int[Deck.NUM_CITIES];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            infection[i] = i;
+            player[i] = i;
+        }
+
+        this.rng = rng;
+        this.setUp(num, first, new Deck(infection, rng), new Deck(player, rng));
+        this.playerDeck.insertEpidemics(PandemicState.NUM_EPIDEMICS, rng);
+    } // PackedState()
+
+    /** PackedState()
+     * This constructor sets up a new game with decks in a given order, which is used for testing.
+     * The player deck is used just as it is given, so no epidemic cards are shuffled into it.
+     * @param num Number of players.
+     * @param first The player who starts the game.
+     * @param infection The card ids of the infection deck, from top to bottom.
+     * @param player The card ids of the player deck, from top to bottom.
+     */
+    public PackedState(int num, int first, int[] infection, int[] player) {
+        this.rng = new GameRandom();
+        this.setUp(num, first, new Deck(infection), new Deck(player));
+    } // PackedState()
+
+    /** PackedState()
+     * This is a copy constructor, which shares all of the arrays of the original state until one
+     * of the two states changes them, so it takes the same time no matter how big the state is.
+     * @param orig The original state that will be copied.
+     */
+    public PackedState(PackedState orig) {
+        this.cubesLeft = orig.cubesLeft;
+        this.diseaseStates = orig.diseaseStates;
+        this.cubes = orig.cubes;
+        this.hands = orig.hands;
+        this.currCity = orig.currCity;
+        this.infectionDeck = new Deck(orig.infectionDeck);
+        this.playerDeck = new Deck(orig.playerDeck);
+        this.rng = new GameRandom(orig.rng);
+        this.reasons = new int[PandemicState.NUM_TYPE_OF_ACTIONS];
+
+        // the arrays are now shared, so neither state may change them without copying them
+        orig.owned = 0;
+        this.owned = 0;
+
+        this.copyCounters(orig);
+    } // PackedState()
+
+    /** PackedState()
+     * This constructor reads a state from a snapshot written by encode().
+     * @param in The buffer to read from.
+     */
+    public PackedState(ByteBuffer in) {
+        this.cubesLeft = new int[Disease.NUM_DISEASES];
+        this.diseaseStates = new int[Disease.NUM_DISEASES];
+        this.cubes = new byte[Deck.NUM_CITIES];
+        this.hands = new long[0];
+        this.currCity = new int[0];
+        this.infectionDeck = new Deck(new int[0]);
+        this.playerDeck = new Deck(new int[0]);
+        this.rng = new GameRandom(0);
+        this.reasons = new int[PandemicState.NUM_TYPE_OF_ACTIONS];
+        this.owned = ALL;
+        this.decode(in);
+    } // PackedState()
+
+    /** setUp()
+     * This is a helper method which sets all instance variables to the start of a game.
+     * @param num Number of players.
+     * @param first The player who starts the game.
+     * @param infection The infection deck.
+     * @param player The player deck.
+     */
+    private void setUp(int num, int first, Deck infection, Deck player) {
+        // the four diseases start uncured with all of their cubes
+        this.cubesLeft = new int[Disease.NUM_DISEASES];
+        this.diseaseStates = new int[Disease.NUM_DISEASES];
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            this.cubesLeft[i] = Disease.MAX_CUBES;
+            this.diseaseStates[i] = Disease.UNCURED;
+        }
+
+        // starting game parameters
+        this.outbreaks = 0;
+        this.infRate = PandemicState.STARTING_RATE;
+        this.stationsLeft = PandemicState.MAX_STATIONS;
+        this.epiLeft = PandemicState.NUM_EPIDEMICS;
+
+        this.cubes = new byte[Deck.NUM_CITIES];
+        this.stations = 0;
+        this.countColors();
+
+        this.numPlayers = num;
+        this.currPlayer = first;
+        this.actionsLeft = PandemicState.NUM_ACTIONS;
+        this.needToDiscard = false;
+        this.drawCardsLeft = PandemicState.NUM_DRAW_CARDS;
+
+        this.infectionDeck = infection;
+        this.playerDeck = player;
+
+        // the players start at the CDC in Atlanta
+        int atlanta = board.getCityId("Atlanta");
+        this.currCity = new int[this.numPlayers];
+        for(int i = 0; i < this.numPlayers; i++) {
+            this.currCity[i] = atlanta;
+        }
+
+        // build CDC
+        this.stations |= 1L << atlanta;
+        this.stationsLeft--;
+
+        // determine how many cards are dealt out at the start
+        int deal;
+        switch(this.numPlayers) {
+            case 2: deal = 4; break;
+            case 3: deal = 3; break;
+            default:
+            case 4: deal = 2; break;
+        }
+
+        // deal out the starting hands
+        this.hands = new long[this.numPlayers];
+        for(int i = 0; i < this.numPlayers; i++) {
+            for(int j = 0; j < deal; j++) {
+                this.hands[i] = PlayerHand.add(this.hands[i], this.playerDeck.draw());
+            }
+        }
+
+        this.gameCondition = PandemicState.PLAY;
+        this.hash = this.computeBaseHash();
+
+        this.owned = ALL;
+        this.version = 0;
+        this.legalVersion = -1;
+        this.reasons = new int[PandemicState.NUM_TYPE_OF_ACTIONS];
+    } // setUp()
+
+    /** copyFrom()
+     * This method overwrites this state with another state of the same number of players, so that
+     * a state can be reused instead of allocating a new one. Unlike the copy constructor, the
+     * arrays are copied into this state's own arrays, so nothing is shared afterwards.
+     * @param orig The state that will be copied.
+     */
+    public void copyFrom(PackedState orig) {
+        if((this.owned & CUBES) != 0) {
+            System.arraycopy(orig.cubes, 0, this.cubes, 0, Deck.NUM_CITIES);
+        }
+        else {
+            this.cubes = orig.cubes.clone();
+        }
+        if((this.owned & DISEASES) != 0) {
+            System.arraycopy(orig.cubesLeft, 0, this.cubesLeft, 0, Disease.NUM_DISEASES);
+            System.arraycopy(orig.diseaseStates, 0, this.diseaseStates, 0, Disease.NUM_DISEASES);
+        }
+        else {
+            this.cubesLeft = orig.cubesLeft.clone();
+            this.diseaseStates = orig.diseaseStates.clone();
+        }
+        if((this.owned & HANDS) != 0) {
+            System.arraycopy(orig.hands, 0, this.hands, 0, orig.hands.length);
+        }
+        else {
+            this.hands = orig.hands.clone();
+        }
+        if((this.owned & CITIES) != 0) {
+            System.arraycopy(orig.currCity, 0, this.currCity, 0, orig.currCity.length);
+        }
+        else {
+            this.currCity = orig.currCity.clone();
+        }
+        this.owned = ALL;
+
+        this.infectionDeck.copyFrom(orig.infectionDeck);
+        this.playerDeck.copyFrom(orig.playerDeck);
+        this.rng.copyFrom(orig.rng);
+        this.clearUndo();
+
+        this.copyCounters(orig);
+    } // copyFrom()
+
+    /** encode()
+     * This method writes this whole state into a buffer as a compact snapshot, which takes at most
+     * MAX_SNAPSHOT_SIZE bytes. It includes the order of both decks and the seed of the random
+     * number generator, which the players must not know, so it is only meant for saving a game.
+     * Use encodePublic() for a snapshot to send to the players. Everything is written in big
+     * endian order, whatever the order of the buffer.
+     *
+     * The snapshot is the magic number, the version and the form, then the diseases, the cubes on
+     * each city at two bits a city, the stations, the counters, each player's hand and city, both
+     * decks (see Deck.encode()), and the seed of the random number generator.
+     * @param out The buffer to write to, starting at its position.
+     */
+    public void encode(ByteBuffer out) {
+        this.encode(out, SNAPSHOT_FULL);
+    } // encode()
+
+    /** encodePublic()
+     * This method writes a snapshot of only what the players can see, which is what is sent from
+     * the game to each player's device. It is the same as encode() except that the decks are
+     * written with Deck.encodePublic(), so the order of the cards nobody has seen is left out, and
+     * the seed of the random number generator is left out.
+     * @param out The buffer to write to, starting at its position.
+     */
+    public void encodePublic(ByteBuffer out) {
+        this.encode(out, SNAPSHOT_PUBLIC);
+    } // encodePublic()
+
+    /** encode()
+     * This is a helper method which writes a snapshot in either form.
+     * @param out The buffer to write to, starting at its position.
+     * @param form SNAPSHOT_FULL or SNAPSHOT_PUBLIC.
+     */
+    private void encode(ByteBuffer out, byte form) {
+        ByteOrder order = out.order();
+        out.order(ByteOrder.BIG_ENDIAN);
+
+        out.putShort(SNAPSHOT_MAGIC);
+        out.put(SNAPSHOT_VERSION);
+        out.put(form);
+
+        int diseases = 0;
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            diseases |= this.diseaseStates[i] << (i * 2);
+            out.put((byte) this.cubesLeft[i]);
+        }
+        out.put((byte) diseases);
+
+        // four cities to a byte
+        for(int i = 0; i < Deck.NUM_CITIES; i += 4) {
+            out.put((byte) (this.cubes[i] | this.cubes[i + 1] << 2
+                    | this.cubes[i + 2] << 4 | this.cubes[i + 3] << 6));
+        }
+        out.putLong(this.stations);
+
+        out.put((byte) this.outbreaks);
+        out.put((byte) this.infRate);
+        out.put((byte) this.stationsLeft);
+        out.put((byte) this.numPlayers);
+        out.put((byte) this.currPlayer);
+        out.put((byte) this.actionsLeft);
+        out.put((byte) (this.needToDiscard ? 1 : 0));
+        out.put((byte) this.drawCardsLeft);
+        out.put((byte) this.epiLeft);
+        out.put((byte) this.gameCondition);
+
+        for(int i = 0; i < this.numPlayers; i++) {
+            out.putLong(this.hands[i]);
+            out.put((byte) this.currCity[i]);
+        }
+
+        if(form == SNAPSHOT_FULL) {
+            this.infectionDeck.encode(out);
+            this.playerDeck.encode(out);
+            out.putLong(this.rng.getSeed());
+        }
+        else {
+            this.infectionDeck.encodePublic(out);
+            this.playerDeck.encodePublic(out);
+        }
+
+        out.order(order);
+    } // encode()
+
+    /** decode()
+     * This method reads a snapshot written by encode() or encodePublic() into this state, so that
+     * one state can be reused for every snapshot. The arrays of this state are reused when they
+     * are not shared and are the right size. The values are read straight from the buffer, so a
+     * direct buffer is never copied into an array first.
+     *
+     * A public snapshot does not have the order of the cards nobody has seen, so they are put in a
+     * fixed order that fits what the players know (see Deck.decodePublic()), and the random number
+     * generator is given the seed 0.
+     * @param in The buffer to read from, starting at its position.
+     * @throws IllegalArgumentException If the buffer does not hold a snapshot, or holds one of a
+     * version other than SNAPSHOT_VERSION.
+     */
+    public void decode(ByteBuffer in) {
+        ByteOrder order = in.order();
+        in.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if(in.getShort() != SNAPSHOT_MAGIC) {
+                throw new IllegalArgumentException("Not a game state snapshot");
+            }
+            byte version = in.get();
+            if(version != SNAPSHOT_VERSION) {
+                throw new IllegalArgumentException("Snapshot version " + version
+                        + " is not supported, only version " + SNAPSHOT_VERSION + " can be read");
+            }
+            byte form = in.get();
+            if(form != SNAPSHOT_FULL && form != SNAPSHOT_PUBLIC) {
+                throw new IllegalArgumentException("Unknown snapshot form " + form);
+            }
+
+            this.own(DISEASES | CUBES);
+            for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+                this.cubesLeft[i] = in.get();
+            }
+            int diseases = in.get();
+            for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+                this.diseaseStates[i] = (diseases >> (i * 2)) & 3;
+            }
+
+            for(int i = 0; i < Deck.NUM_CITIES; i += 4) {
+                int packed = in.get();
+                for(int j = 0; j < 4; j++) {
+                    this.cubes[i + j] = (byte) ((packed >> (j * 2)) & 3);
+                }
+            }
+            this.stations = in.getLong();
+
+            this.outbreaks = in.get();
+            this.infRate = in.get();
+            this.stationsLeft = in.get();
+            this.numPlayers = in.get();
+            this.currPlayer = in.get();
+            this.actionsLeft = in.get();
+            this.needToDiscard = in.get() != 0;
+            this.drawCardsLeft = in.get();
+            this.epiLeft = in.get();
+            this.gameCondition = in.get();
+
+            // the number of players may be different from the last state decoded into this one
+            if(this.hands.length == this.numPlayers) {
+                this.own(HANDS | CITIES);
+            }
+            else {
+                this.hands = new long[this.numPlayers];
+                this.currCity = new int[this.numPlayers];
+                this.owned |= HANDS | CITIES;
+            }
+            for(int i = 0; i < this.numPlayers; i++) {
+                this.hands[i] = in.getLong();
+                this.currCity[i] = in.get();
+            }
+
+            if(form == SNAPSHOT_FULL) {
+                this.infectionDeck.decode(in);
+                this.playerDeck.decode(in);
+                this.rng.setSeed(in.getLong());
+            }
+            else {
+                this.infectionDeck.decodePublic(in);
+                this.playerDeck.decodePublic(in);
+                this.rng.setSeed(0);
+            }
+            this.countColors();
+        }
+        finally {
+            in.order(order);
+        }
+
+        this.lastOutbreaks = 0;
+        this.lastInfected = 0;
+        this.hash = this.computeBaseHash();
+        this.clearUndo();
+        this.version++;
+        this.legalVersion = -1;
+    } // decode()
+
+    /** writeDelta()
+     * This method writes a delta, which is a list of only the parts of this state that are
+     * different from an earlier copy of it, ending with DELTA_END. If the copy was made with the
+     * copy constructor, every array that has not changed is still shared and is skipped without
+     * looking at it; otherwise the arrays are compared, which is still quick since they are small.
+     * A turn usually changes a few values, so a delta is often only a few bytes.
+     *
+     * Like encode(), the delta includes the order of the decks and the seed, so it is only meant
+     * for keeping a saved copy up to date. Use writePublicDelta() for deltas sent to the players.
+     * @param before An earlier copy of this state, with the same number of players.
+     * @param out The buffer to write to.
+     */
+    public void writeDelta(PackedState before, ByteBuffer out) {
+        this.writeDelta(before, out, true);
+    } // writeDelta()
+
+    /** writePublicDelta()
+     * This method writes a delta of only what the players can see, which can be applied to a copy
+     * decoded from a public snapshot. It is the same as writeDelta() except that a deck that has
+     * changed is written with Deck.encodePublic(), and the seed is left out.
+     * @param before An earlier copy of this state, with the same number of players.
+     * @param out The buffer to write to.
+     */
+    public void writePublicDelta(PackedState before, ByteBuffer out) {
+        this.writeDelta(before, out, false);
+    } // writePublicDelta()
+
+    /** writeDelta()
+     * This is a helper method which writes a delta in either form.
+     * @param before An earlier copy of this state, with the same number of players.
+     * @param out The buffer to write to.
+     * @param full Whether to write the order of the decks and the seed.
+     */
+    private void writeDelta(PackedState before, ByteBuffer out, boolean full) {
+        if(this.cubes != before.cubes) {
+            for(int i = 0; i < Deck.NUM_CITIES; i++) {
+                if(this.cubes[i] != before.cubes[i]) {
+                    out.put(DELTA_CUBES).put((byte) i).put(this.cubes[i]);
+                }
+            }
+        }
+        if(this.cubesLeft != before.cubesLeft) {
+            for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+                if(this.cubesLeft[i] != before.cubesLeft[i]) {
+                    out.put(DELTA_CUBES_LEFT).put((byte) i).put((byte) this.cubesLeft[i]);
+                }
+                if(this.diseaseStates[i] != before.diseaseStates[i]) {
+                    out.put(DELTA_DISEASE).put((byte) i).put((byte) this.diseaseStates[i]);
+                }
+            }
+        }
+        if(this.stations != before.stations) {
+            out.put(DELTA_STATIONS).putLong(this.stations);
+        }
+        for(int i = 0; i < NUM_COUNTERS; i++) {
+            int value = this.getCounter(i);
+            if(value != before.getCounter(i)) {
+                out.put(DELTA_COUNTER).put((byte) i).put((byte) value);
+            }
+        }
+        for(int i = 0; i < this.numPlayers; i++) {
+            if(this.hands[i] != before.hands[i]) {
+                out.put(DELTA_HAND).put((byte) i).putLong(this.hands[i]);
+            }
+            if(this.currCity[i] != before.currCity[i]) {
+                out.put(DELTA_CITY).put((byte) i).put((byte) this.currCity[i]);
+            }
+        }
+        if(!this.infectionDeck.sameAs(before.infectionDeck)) {
+            if(full) {
+                out.put(DELTA_INFECTION_DECK);
+                this.infectionDeck.writeDelta(before.infectionDeck, out);
+            }
+            else {
+                out.put(DELTA_INFECTION_PUBLIC);
+                this.infectionDeck.encodePublic(out);
+            }
+        }
+        if(!this.playerDeck.sameAs(before.playerDeck)) {
+            if(full) {
+                out.put(DELTA_PLAYER_DECK);
+                this.playerDeck.writeDelta(before.playerDeck, out);
+            }
+            else {
+                out.put(DELTA_PLAYER_PUBLIC);
+                this.playerDeck.encodePublic(out);
+            }
+        }
+        if(full && this.rng.getSeed() != before.rng.getSeed()) {
+            out.put(DELTA_SEED).putLong(this.rng.getSeed());
+        }
+        out.put(DELTA_END);
+    } // writeDelta()
+
+    /** applyDelta()
+     * This method applies a delta written by writeDelta() or writePublicDelta(), which brings a
+     * copy of the earlier state up to date.
+     * @param in The buffer to read from.
+     * @throws IllegalArgumentException If the delta has a record this version does not know.
+     */
+    public void applyDelta(ByteBuffer in) {
+        this.version++;
+        for(byte tag = in.get(); tag != DELTA_END; tag = in.get()) {
+            switch(tag) {
+                case DELTA_CUBES:
+                    this.own(CUBES);
+                    this.cubes[in.get()] = in.get();
+                    break;
+                case DELTA_CUBES_LEFT:
+                    this.own(DISEASES);
+                    this.cubesLeft[in.get()] = in.get();
+                    break;
+                case DELTA_DISEASE:
+                    this.own(DISEASES);
+                    this.diseaseStates[in.get()] = in.get();
+                    break;
+                case DELTA_STATIONS:
+                    this.stations = in.getLong();
+                    break;
+                case DELTA_COUNTER:
+                    this.setCounter(in.get(), in.get());
+                    break;
+                case DELTA_HAND:
+                    this.own(HANDS);
+                    this.hands[in.get()] = in.getLong();
+                    break;
+                case DELTA_CITY:
+                    this.own(CITIES);
+                    this.currCity[in.get()] = in.get();
+                    break;
+                case DELTA_INFECTION_DECK:
+                    this.infectionDeck.applyDelta(in);
+                    break;
+                case DELTA_PLAYER_DECK:
+                    this.playerDeck.applyDelta(in);
+                    break;
+                case DELTA_SEED:
+                    this.rng.setSeed(in.getLong());
+                    break;
+                case DELTA_INFECTION_PUBLIC:
+                    this.infectionDeck.decodePublic(in);
+                    break;
+                case DELTA_PLAYER_PUBLIC:
+                    this.playerDeck.decodePublic(in);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown delta record " + tag);
+            }
+        }
+
+        this.countColors();
+        this.hash = this.computeBaseHash();
+    } // applyDelta()
+
+    /** getCounter()
+     * This is a helper method which numbers the counters of the state, for deltas. The need to
+     * discard flag is sent as it is rather than worked out again from the hand, since it only
+     * changes when it is checked and can be behind the hand until then.
+     * @param idx The number of the counter.
+     * @return The value of the counter.
+     */
+    private int getCounter(int idx) {
+        switch(idx) {
+            case 0: return this.outbreaks;
+            case 1: return this.infRate;
+            case 2: return this.stationsLeft;
+            case 3: return this.currPlayer;
+            case 4: return this.actionsLeft;
+            case 5: return this.drawCardsLeft;
+            case 6: return this.epiLeft;
+            case 7: return this.needToDiscard ? 1 : 0;
+            default: return this.gameCondition;
+        }
+    } // getCounter()
+
+    /** setCounter()
+     * This is a helper method which sets a counter numbered by getCounter().
+     * @param idx The number of the counter.
+     * @param value The new value of the counter.
+     */
+    private void setCounter(int idx, int value) {
+        switch(idx) {
+            case 0: this.outbreaks = value; break;
+            case 1: this.infRate = value; break;
+            case 2: this.stationsLeft = value; break;
+            case 3: this.currPlayer = value; break;
+            case 4: this.actionsLeft = value; break;
+            case 5: this.drawCardsLeft = value; break;
+            case 6: this.epiLeft = value; break;
+            case 7: this.needToDiscard = value != 0; break;
+            default: this.gameCondition = value; break;
+        }
+    } // setCounter()
+
+    /** copyCounters()
+     * This is a helper method which copies every variable that is not an array.
+     * @param orig The state that will be copied.
+     */
+    private void copyCounters(PackedState orig) {
+        this.outbreaks = orig.outbreaks;
+        this.curedColors = orig.curedColors;
+        this.emptyColors = orig.emptyColors;
+        this.cubesLow = orig.cubesLow;
+        this.cubesHigh = orig.cubesHigh;
+        this.infRate = orig.infRate;
+        this.stationsLeft = orig.stationsLeft;
+        this.stations = orig.stations;
+        this.hash = orig.hash;
+        this.numPlayers = orig.numPlayers;
+        this.currPlayer = orig.currPlayer;
+        this.actionsLeft = orig.actionsLeft;
+        this.needToDiscard = orig.needToDiscard;
+        this.drawCardsLeft = orig.drawCardsLeft;
+        this.epiLeft = orig.epiLeft;
+        this.gameCondition = orig.gameCondition;
+
+        // the legal actions of this state were checked for a different game, so check them again
+        this.version = orig.version;
+        this.legalVersion = -1;
+    } // copyCounters()
+
+    /** own()
+     * This is a helper method which is called before changing parts of the state. Any of those
+     * parts that might still be shared with a copy are copied first, so the copy is not changed.
+     * @param parts The parts of the state about to be changed.
+     */
+    private void own(int parts) {
+        int shared = parts & ~this.owned;
+        if(shared == 0) {
+            return;
+        }
+
+        if((shared & CUBES) != 0) {
+            this.cubes = this.cubes.clone();
+        }
+        if((shared & DISEASES) != 0) {
+            this.cubesLeft = this.cubesLeft.clone();
+            this.diseaseStates = this.diseaseStates.clone();
+        }
+        if((shared & HANDS) != 0) {
+            this.hands = this.hands.clone();
+        }
+        if((shared & CITIES) != 0) {
+            this.currCity = this.currCity.clone();
+        }
+        this.owned |= shared;
+    } // own()
+
+    /** needToDiscard()
+     * This method checks to see if the current player has too many cards. If so, the only action
+     * the player can do is discard a card.
+     * @return Whether the current player needs to discard.
+     */
+    public boolean needToDiscard() {
+        // if there are more cards than the hand limit, the player needs to discard
+        int numCards = PlayerHand.size(this.hands[this.currPlayer]);
+        this.needToDiscard = numCards > PandemicState.HAND_LIMIT;
+        return this.needToDiscard;
+    } // needToDiscard()
+
+    /** treat()
+     * This method performs the "treat disease" action, which removes a disease cube from the
+     * location of the current player.
+     * @param player The player that performed this action.
+     * @return Whether the action was valid.
+     */
+    public boolean treat(int player) {
+        if(!this.canDo(player, PandemicState.TREAT)) {
+            return false;
+        }
+
+        // which city player is in
+        int curr = this.currCity[player];
+
+        // if treating the disease was successful, remove a cube
+        if(this.cubes[curr] > 0) {
+            this.setCubes(curr, this.cubes[curr] - 1);
+            this.eradicateIfClear(board.getColor(curr));
+            this.actionsLeft--;
+            this.version++;
+            return true;
+        }
+        return false;
+    } // treat()
+
+    /** driveFerry()
+     * This method performs the Drive/Ferry action, which moves a player to an adjacent connected
+     * city.
+     * @param player The player that performed this action.
+     * @param newCity The id of the city the player is trying to go to.
+     * @return Whether the action was valid.
+     */
+    public boolean driveFerry(int player, int newCity) {
+        if(!this.canDo(player, PandemicState.DRIVE_FERRY)) {
+            return false;
+        }
+
+        // check if the current city is adjacent to the new city
+        if(graph.isAdjacent(this.currCity[player], newCity)) {
+            this.setCity(player, newCity);
+            this.actionsLeft--;
+            this.version++;
+            return true;
+        }
+        return false;
+    } // driveFerry()
+
+    /** directFlight()
+     * This method performs the Direct Flight action, which moves a player to the city of a card
+     * they discarded.
+     * @param player The player that performed this action.
+     * @param newCity The id of the city the player discarded in order to go to it.
+     * @return Whether the action was valid.
+     */
+    public boolean directFlight(int player, int newCity) {
+        if(!this.canDo(player, PandemicState.DIRECT_FLIGHT)) {
+            return false;
+        }
+
+        // makes sure the player has the card, then discard it and move the player
+        if(this.hasCard(player, newCity)) {
+            this.setCity(player, newCity);
+            this.discard(player, newCity);
+            this.actionsLeft--;
+            this.version++;
+            return true;
+        }
+        return false;
+    } // directFlight()
+
+    /** charterFlight()
+     * This method performs the Charter Flight action, which moves a player to any city on the board
+     * if they discard the card of the city they are in.
+     * @param player The player that performed this action.
+     * @param newCity The id of the city the player is trying to go to.
+     * @return Whether the action was valid.
+     */
+    public boolean charterFlight(int player, int newCity) {
+        if(!this.canDo(player, PandemicState.CHARTER_FLIGHT)) {
+            return false;
+        }
+
+        // the card is only spent on a real city other than the one the player is in
+        if(newCity < 0 || newCity >= Deck.NUM_CITIES || newCity == this.currCity[player]) {
+            return false;
+        }
+
+        this.discard(player, this.currCity[player]);
+        this.setCity(player, newCity);
+        this.actionsLeft--;
+        this.version++;
+        return true;
+    } // charterFlight()
+
+    /** shuttleFlight()
+     * This method performs the Shuttle Flight action, which moves a player between two research
+     * stations.
+     * @param player The player that performed the action.
+     * @param newCity The id of the city the player is trying to go to.
+     * @return Whether the action was valid.
+     */
+    public boolean shuttleFlight(int player, int newCity) {
+        if(!this.canDo(player, PandemicState.SHUTTLE_FLIGHT)) {
+            return false;
+        }
+
+        // check if both locations have a research station, if so, move them
+        if(this.hasStation(this.currCity[player]) && this.hasStation(newCity)) {
+            this.setCity(player, newCity);
+            this.actionsLeft--;
+            this.version++;
+            return true;
+        }
+        return false;
+    } // shuttleFlight()
+
+    /** buildStation()
+     * This method performs the Build Research Station action, which builds a research station if
+     * the player discards the city that they are currently in.
+     * @param player The player that performed the action.
+     * @return Whether the action was valid.
+     */
+    public boolean buildStation(int player) {
+        if(!this.canDo(player, PandemicState.BUILD)) {
+            return false;
+        }
+
+        // gets the city the player is in
+        int curr = this.currCity[player];
+        // checks to see if ... a) there are stations left, b) the player has that card, and
+        // c) there is not a station there already
+        if(this.stationsLeft > 0 && this.hasCard(player, curr) && !this.hasStation(curr)) {
+            this.setStations(this.stations | 1L << curr);
+            this.discard(player, curr);
+            this.stationsLeft--;
+            this.actionsLeft--;
+            this.version++;
+            return true;
+        }
+        return false;
+    } // buildStation()
+
+    /** forgoAction()
+     * This method removes an action from the current player, if they choose to do so.
+     * @param player The player that performed the action.
+     * @return Whether the action was valid.
+     */
+    public boolean forgoAction(int player) {
+        if(!this.canDo(player, PandemicState.PASS)) {
+            return false;
+        }
+
+        this.actionsLeft--;
+
+        this.version++;
+        return true;
+    } // forgoAction()
+
+    /** discard()
+     * This method removes a certain card from a player's hand, usually to perform actions or to
+     * satisfy the hand limit.
+     * @param player The player who is discarding a card.
+     * @param card The id of the card they are trying to discard.
+     * @return Whether the action was valid.
+     */
+    public boolean discard(int player, int card) {
+        if(player != this.currPlayer) {
+            return false;
+        }
+
+        if(this.hasCard(player, card)) {
+            this.setHand(player, PlayerHand.remove(this.hands[player], card));
+            this.version++;
+            return true;
+        }
+        return false;
+    } // discard()
+
+    /** discardToCure()
+     * This is a helper method which is called when a player cures a disease. It removes five cards
+     * from their hand of the same color.
+     * @param player The player that has cured the disease.
+     * @param color The disease that is being cured.
+     * @return Whether the discard was valid.
+     */
+    public boolean discardToCure(int player, int color) {
+        if(player == this.currPlayer) {
+            this.setHand(player, PlayerHand.removeColor(this.hands[player], color,
+                    PandemicState.REQUIRED_CARDS_CURE));
+            this.setDiseaseState(color, Disease.CURED);
+            this.eradicateIfClear(color);
+            this.actionsLeft--;
+            this.version++;
+            this.gameWon();
+            return true;
+        }
+        return false;
+    } // discardToCure()
+
+    /** share()
+     * This method performs the Share Knowledge action, which either gives or takes a city card of
+     * two players that are in the same city.
+     * @param player The player that performed the action.
+     * @return Whether the action was valid.
+     */
+    public boolean share(int player) {
+        if(!this.canDo(player, PandemicState.SHARE)) {
+            return false;
+        }
+
+        for(int i = 0; i < this.numPlayers; i++) {
+            // share with the first player it works with
+            if(i != player && this.share(player, i)) {
+                return true;
+            }
+        }
+        return false;
+    } // share()
+
+    /** share()
+     * This method performs the Share Knowledge action with a chosen player, which either gives or
+     * takes the card of the city the two players are both in.
+     * @param player The player that performed the action.
+     * @param partner The player they are sharing with.
+     * @return Whether the action was valid.
+     */
+    public boolean share(int player, int partner) {
+        if(!this.canDo(player, PandemicState.SHARE)) {
+            return false;
+        }
+
+        // make sure we are not looking at the same player, and that they are in the same city
+        int curr = this.currCity[player];
+        if(partner == player || partner < 0 || partner >= this.numPlayers
+                || this.currCity[partner] != curr) {
+            return false;
+        }
+
+        // check to see if that player has that city card
+        if(this.hasCard(partner, curr)) {
+            // then insert that card into current player's hand
+            return this.swapCards(curr, partner, player);
+        }
+        // check to see if current player has that city card
+        else if(this.hasCard(player, curr)) {
+            // then insert that card into other player's hand
+            return this.swapCards(curr, player, partner);
+        }
+        return false;
+    } // share()
+
+    /** cure()
+     * This method performs the Cure Disease action, which discards five cards of the same color
+     * in order to cure the disease (required to win).
+     * @param player The player that performed the action.
+     * @return Whether the action was valid.
+     */
+    public boolean cure(int player) {
+        if(!this.canDo(player, PandemicState.CURE)) {
+            return false;
+        }
+
+        int color = this.cureColor(player);
+        if(color != Deck.NO_CARD) {
+            return this.discardToCure(player, color);
+        }
+        return false;
+    } // cure()
+
+    /** swapCards()
+     * This is a helper method which transfers a card from one player's hand to another's.
+     * @param card The id of the card that is wanting to be swapped.
+     * @param origPlayer The player in which the city card is coming from.
+     * @param newPlayer The player in which the city card is going to.
+     * @return Whether the action was valid.
+     */
+    public boolean swapCards(int card, int origPlayer, int newPlayer) {
+        if(!this.hasCard(origPlayer, card)) {
+            return false;
+        }
+
+        this.setHand(origPlayer, PlayerHand.remove(this.hands[origPlayer], card));
+        this.setHand(newPlayer, PlayerHand.add(this.hands[newPlayer], card));
+        this.actionsLeft--;
+        this.version++;
+        return true;
+    } // swapCards()
+
+    /** hasCard()
+     * This is a helper method which checks to see if a player has a certain city card.
+     * @param player The player whose hand we are checking.
+     * @param card The id of the card we are looking for.
+     * @return Whether the player has that city card.
+     */
+    public boolean hasCard(int player, int card) {
+        return PlayerHand.has(this.hands[player], card);
+    } // hasCard()
+
+    /** endTurn()
+     * This method performs the End Turn action, which will carry out the rest of the player's turn,
+     * including drawing two city cards and drawing infection cards.
+     * @param player The player that performed the action.
+     * @return Whether the action was valid.
+     */
+    public boolean endTurn(int player) {
+        if(!this.canDo(player, PandemicState.END_TURN)) {
+            return false;
+        }
+
+        while(this.drawCardsLeft != 0) {
+            if(!this.drawCard()) {
+                return false;
+            }
+            this.drawCardsLeft--;
+        }
+        // if it gets to here, the player has successfully drawn two cards.
+        this.drawCardsLeft = PandemicState.NUM_DRAW_CARDS;
+        this.drawInfectionCards();
+
+        // continue to next player
+        this.currPlayer = (this.currPlayer + 1) % this.numPlayers;
+        this.actionsLeft = PandemicState.NUM_ACTIONS;
+        this.version++;
+        return true;
+    } // endTurn()
+
+    /** drawCard()
+     * This method draws a city card for the player and adds it into their hand.
+     * @return Whether drawing a card was successful.
+     */
+    public boolean drawCard() {
+        if(this.needToDiscard()) {
+            return false;
+        }
+
+        int draw = this.playerDeck.draw();
+        this.version++;
+        if(draw == Deck.NO_CARD) {
+            // LOSE CONDITION #3: can't draw player cards
+            this.gameCondition = PandemicState.LOSE;
+            return false;
+        }
+        else if(draw == Deck.EPIDEMIC_CARD) {
+            this.epidemic();
+        }
+        else {
+            this.setHand(this.currPlayer, PlayerHand.add(this.hands[this.currPlayer], draw));
+        }
+        return true;
+    } // drawCard()
+
+    /** epidemic()
+     * This method is called when an Epidemic card is pulled instead of a regular city card.
+     * Epidemics increase the difficulty of the game significantly.
+     */
+    public void epidemic() {
+        // step 1) increase: adjust the infection rate
+        switch(this.epiLeft) {
+            case 5: case 4: break;
+            case 3: case 2: this.infRate = 3; break;
+            case 1: this.infRate = 4; break;
+        }
+        this.epiLeft--;
+        this.version++;
+
+        // step 2) infect: draw bottom card, infect that city at max
+        if(this.depth > 0) {
+            this.log(TRAIL_INFECTION_HEAD, 0, this.infectionDeck.getHead());
+        }
+        int epidemic = this.infectionDeck.drawBottomCard();
+        if(epidemic != Deck.NO_CARD) {
+            this.outbreaks += this.infectCity(epidemic, City.MAX_CUBES);
+        }
+
+        // step 3) intensify: shuffle all previously drawn cards
+        if(this.depth > 0) {
+            // only the discard pile moves, so only remember its order
+            for(int i = 0; i <= this.infectionDeck.getCurrPos(); i++) {
+                this.log(TRAIL_INFECTION_CARD, i, this.infectionDeck.getCardAtIndex(i));
+            }
+        }
+        this.infectionDeck.shuffleEpidemic(this.rng);
+
+        this.gameLost();
+    } // epidemic()
+
+    /** drawInfectionCards()
+     * This method draws infection cards equal to the current infection rate, then places a disease
+     * cube there. An outbreak occurs if the city already has three cubes. Once the game is lost, no
+     * more cards are drawn.
+     */
+    public void drawInfectionCards() {
+        this.version++;
+        for(int i = 0; i < this.infRate && this.gameCondition == PandemicState.PLAY; i++) {
+            int infect = this.infectionDeck.draw();
+            if(infect == Deck.NO_CARD) {
+                break;
+            }
+            this.outbreaks += this.infectCity(infect, 1);
+            this.gameLost();
+        }
+    } // drawInfectionCards()
+
+    /** infectCity()
+     * This method adds disease cubes to a city, and resolves any outbreaks this causes. If a city
+     * would go over three cubes, it breaks out instead, which puts a cube in each of its connected
+     * cities, and those can break out in turn. Each city breaks out at most once per chain.
+     *
+     * The chain is worked out one ring of cities at a time with bitmasks instead of recursion, so
+     * it always ends and never allocates anything. The cities that broke out and the cities that
+     * got cubes can be read with getLastOutbreaks() and getLastInfected() afterwards.
+     * @param city The id of the city.
+     * @param num The number of cubes to add to the city.
+     * @return The number of outbreaks that happened.
+     */
+    public int infectCity(int city, int num) {
+        this.version++;
+        this.lastOutbreaks = 0;
+        this.lastInfected = 0;
+
+        // no more cubes of an eradicated disease are placed, so its cities never break out
+        if(this.diseaseStates[board.getColor(city)] == Disease.ERADICATED) {
+            return 0;
+        }
+
+        // cities waiting to break out, and cities that have already broken out or are waiting to
+        long frontier = 0;
+        long infected = 0;
+        int room = City.MAX_CUBES - this.cubes[city];
+        if(num > room) {
+            num = room;
+            frontier = 1L << city;
+        }
+        if(num > 0) {
+            this.addCubes(city, num);
+            infected = 1L << city;
+        }
+        long visited = frontier;
+
+        while(frontier != 0) {
+            long next = 0;
+            for(long ring = frontier; ring != 0; ring &= ring - 1) {
+                // every connected city that has not broken out in this chain gets a cube
+                long hit = graph.getNeighborMask(Long.numberOfTrailingZeros(ring)) & ~visited;
+                for(; hit != 0; hit &= hit - 1) {
+                    int n = Long.numberOfTrailingZeros(hit);
+                    if(this.diseaseStates[board.getColor(n)] == Disease.ERADICATED) {
+                        continue;
+                    }
+                    if(this.cubes[n] == City.MAX_CUBES) {
+                        next |= 1L << n;
+                    }
+                    else {
+                        this.addCubes(n, 1);
+                        infected |= 1L << n;
+                    }
+                }
+            }
+            visited |= next;
+            frontier = next;
+        }
+
+        this.lastOutbreaks = visited;
+        this.lastInfected = infected;
+        return Long.bitCount(visited);
+    } // infectCity()
+
+    /** addCubes()
+     * This is a helper method which puts cubes of a city's color on the city.
+     * @param city The id of the city.
+     * @param num The number of cubes.
+     */
+    private void addCubes(int city, int num) {
+        this.setCubes(city, this.cubes[city] + num);
+    } // addCubes()
+
+    /** pushUndo()
+     * This method marks the current state, so that undo() can bring it back. Everything done
+     * after this, including random draws and shuffles, is remembered in a trail that is kept for
+     * the life of the state, so after the first few moves nothing is allocated. Marks can be
+     * nested, which lets a search play moves deeper and deeper on one state and take them back.
+     */
+    public void pushUndo() {
+        if(this.trail == null) {
+            this.trail = new int[256];
+            this.frames = new int[16];
+        }
+        if(this.depth == this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.depth * 2);
+        }
+        this.reserve(FRAME_SIZE);
+        this.frames[this.depth++] = this.trailSize;
+
+        // the counters are small, so all of them are saved instead of tracking which changed
+        int[] t = this.trail;
+        int i = this.trailSize;
+        t[i++] = this.outbreaks;
+        t[i++] = this.infRate;
+        t[i++] = this.stationsLeft;
+        t[i++] = this.currPlayer;
+        t[i++] = this.actionsLeft;
+        t[i++] = this.needToDiscard ? 1 : 0;
+        t[i++] = this.drawCardsLeft;
+        t[i++] = this.epiLeft;
+        t[i++] = this.gameCondition;
+        t[i++] = this.infectionDeck.getCurrPos();
+        t[i++] = this.playerDeck.getCurrPos();
+        t[i++] = (int) this.stations;
+        t[i++] = (int) (this.stations >>> 32);
+        t[i++] = (int) this.rng.getSeed();
+        t[i++] = (int) (this.rng.getSeed() >>> 32);
+        t[i++] = (int) this.infectionDeck.getBlocks();
+        t[i++] = (int) (this.infectionDeck.getBlocks() >>> 32);
+        this.trailSize = i;
+    } // pushUndo()
+
+    /** undo()
+     * This method brings back the state as it was at the last pushUndo().
+     * @return Whether there was a mark to go back to.
+     */
+    public boolean undo() {
+        if(this.depth == 0) {
+            return false;
+        }
+        int frame = this.frames[--this.depth];
+        int[] t = this.trail;
+
+        // put back every changed entry, newest first
+        int saved = this.depth;
+        this.depth = 0;
+        for(int i = this.trailSize - ENTRY_SIZE; i >= frame + FRAME_SIZE; i -= ENTRY_SIZE) {
+            int idx = t[i + 1];
+            switch(t[i]) {
+                case TRAIL_CUBES: this.setCubes(idx, t[i + 2]); break;
+                case TRAIL_DISEASE: this.setDiseaseState(idx, t[i + 2]); break;
+                case TRAIL_HAND:
+                    long high = (long) t[i + ENTRY_SIZE + 2] << 32;
+                    this.setHand(idx, (t[i + 2] & 0xffffffffL) | high);
+                    break;
+                case TRAIL_CITY: this.setCity(idx, t[i + 2]); break;
+                case TRAIL_INFECTION_CARD:
+                    this.infectionDeck.setCardAtIndex(idx, t[i + 2]);
+                    break;
+                case TRAIL_INFECTION_HEAD: this.infectionDeck.setHead(t[i + 2]); break;
+                default:
+                    // the second half of a hand, which was read with the first half
+                    break;
+            }
+        }
+        this.depth = saved;
+
+        int i = frame;
+        this.outbreaks = t[i++];
+        this.infRate = t[i++];
+        this.stationsLeft = t[i++];
+        this.currPlayer = t[i++];
+        this.actionsLeft = t[i++];
+        this.needToDiscard = t[i++] != 0;
+        this.drawCardsLeft = t[i++];
+        this.epiLeft = t[i++];
+        this.gameCondition = t[i++];
+        this.infectionDeck.setCurrPos(t[i++]);
+        this.playerDeck.setCurrPos(t[i++]);
+        this.setStations((t[i++] & 0xffffffffL) | (long) t[i++] << 32);
+        this.rng.setSeed((t[i++] & 0xffffffffL) | (long) t[i++] << 32);
+        this.infectionDeck.setBlocks((t[i++] & 0xffffffffL) | (long) t[i++] << 32);
+
+        this.trailSize = frame;
+        this.version++;
+        return true;
+    } // undo()
+
+    /** play()
+     * This method marks the state with pushUndo() and then makes a move, so that undo() takes the
+     * move back whether or not it worked.
+     * @param move The move, made with Move.make().
+     * @return Whether the move was valid.
+     */
+    public boolean play(int move) {
+        this.pushUndo();
+        return Move.apply(this, move);
+    } // play()
+
+    /** getUndoDepth()
+     * @return The number of marks that undo() can go back to.
+     */
+    public int getUndoDepth() {
+        return this.depth;
+    } // getUndoDepth()
+
+    /** clearUndo()
+     * This method forgets every mark, keeping the state as it is.
+     */
+    public void clearUndo() {
+        this.depth = 0;
+        this.trailSize = 0;
+    } // clearUndo()
+
+    /** log()
+     * This is a helper method which remembers the old value of an array entry that is about to
+     * change, if there is a mark to undo back to.
+     * @param tag What kind of entry it is, such as TRAIL_CUBES.
+     * @param idx The index of the entry.
+     * @param old The old value.
+     */
+    private void log(int tag, int idx, int old) {
+        this.reserve(ENTRY_SIZE);
+        int i = this.trailSize;
+        this.trail[i] = tag;
+        this.trail[i + 1] = idx;
+        this.trail[i + 2] = old;
+        this.trailSize = i + ENTRY_SIZE;
+    } // log()
+
+    /** reserve()
+     * This is a helper method which makes sure the trail has room for more ints.
+     * @param num The number of ints.
+     */
+    private void reserve(int num) {
+        if(this.trailSize + num > this.trail.length) {
+            this.trail = Arrays.copyOf(this.trail, this.trail.length * 2);
+        }
+    } // reserve()
+
+    /** setCubes()
+     * This is a helper method which changes the number of cubes on a city, and takes or gives back
+     * cubes of the city's color to match.
+     * @param city The id of the city.
+     * @param num The new number of cubes.
+     */
+    private void setCubes(int city, int num) {
+        this.own(CUBES | DISEASES);
+        if(this.depth > 0) {
+            this.log(TRAIL_CUBES, city, this.cubes[city]);
+        }
+        int color = board.getColor(city);
+        this.cubesLeft[color] -= num - this.cubes[city];
+        this.hash ^= Zobrist.cubes(city, this.cubes[city]) ^ Zobrist.cubes(city, num);
+        this.cubes[city] = (byte) num;
+        long bit = 1L << city;
+        this.cubesLow = (num & 1) != 0 ? this.cubesLow | bit : this.cubesLow & ~bit;
+        this.cubesHigh = (num & 2) != 0 ? this.cubesHigh | bit : this.cubesHigh & ~bit;
+
+        // LOSE CONDITION #1 happens as soon as a cube can not be placed
+        if(this.cubesLeft[color] < 0) {
+            this.emptyColors |= 1 << color;
+            this.gameCondition = PandemicState.LOSE;
+        }
+        else {
+            this.emptyColors &= ~(1 << color);
+        }
+    } // setCubes()
+
+    /** setDiseaseState()
+     * This is a helper method which changes the state of a disease.
+     * @param color The color of the disease.
+     * @param state The new state.
+     */
+    private void setDiseaseState(int color, int state) {
+        this.own(DISEASES);
+        if(this.depth > 0) {
+            this.log(TRAIL_DISEASE, color, this.diseaseStates[color]);
+        }
+        this.hash ^= Zobrist.disease(color, this.diseaseStates[color])
+                ^ Zobrist.disease(color, state);
+        this.diseaseStates[color] = state;
+        if(state == Disease.UNCURED) {
+            this.curedColors &= ~(1 << color);
+        }
+        else {
+            this.curedColors |= 1 << color;
+        }
+    } // setDiseaseState()
+
+    /** eradicateIfClear()
+     * This is a helper method which eradicates a cured disease once none of its cubes are left on
+     * the board.
+     * @param color The color of the disease.
+     */
+    private void eradicateIfClear(int color) {
+        if(this.diseaseStates[color] == Disease.CURED
+                && this.cubesLeft[color] == Disease.MAX_CUBES) {
+            this.setDiseaseState(color, Disease.ERADICATED);
+        }
+    } // eradicateIfClear()
+
+    /** countColors()
+     * This is a helper method which works out which diseases are cured and which have run out of
+     * cubes, and which cities have cubes, after the diseases or cubes were changed without going
+     * through the setters.
+     */
+    private void countColors() {
+        this.cubesLow = 0;
+        this.cubesHigh = 0;
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            this.cubesLow |= (long) (this.cubes[i] & 1) << i;
+            this.cubesHigh |= (long) (this.cubes[i] >> 1 & 1) << i;
+        }
+
+        this.curedColors = 0;
+        this.emptyColors = 0;
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            if(this.diseaseStates[i] != Disease.UNCURED) {
+                this.curedColors |= 1 << i;
+            }
+            if(this.cubesLeft[i] < 0) {
+                this.emptyColors |= 1 << i;
+            }
+        }
+    } // countColors()
+
+    /** setHand()
+     * This is a helper method which changes a player's hand.
+     * @param player The player.
+     * @param hand The new hand.
+     */
+    private void setHand(int player, long hand) {
+        this.own(HANDS);
+        if(this.depth > 0) {
+            // a hand takes two entries, with the high half in the second
+            long old = this.hands[player];
+            this.log(TRAIL_HAND, player, (int) old);
+            this.log(-1, player, (int) (old >>> 32));
+        }
+        this.hash ^= Zobrist.hand(player, this.hands[player] ^ hand);
+        this.hands[player] = hand;
+    } // setHand()
+
+    /** setCity()
+     * This is a helper method which moves a player.
+     * @param player The player.
+     * @param city The id of the city they move to.
+     */
+    private void setCity(int player, int city) {
+        this.own(CITIES);
+        if(this.depth > 0) {
+            this.log(TRAIL_CITY, player, this.currCity[player]);
+        }
+        this.hash ^= Zobrist.location(player, this.currCity[player])
+                ^ Zobrist.location(player, city);
+        this.currCity[player] = city;
+    } // setCity()
+
+    /** setStations()
+     * This is a helper method which changes which cities have research stations. Stations are
+     * kept in one long, which the undo trail saves with the counters.
+     * @param stations The new bitmask of the cities with stations.
+     */
+    private void setStations(long stations) {
+        this.hash ^= Zobrist.stations(this.stations ^ stations);
+        this.stations = stations;
+    } // setStations()
+
+    /** getHash()
+     * This method gets the 64-bit Zobrist hash of the state, which is the same for any two states
+     * that are the same. It is kept up to date by every change, so getting it takes the same short
+     * time no matter what the state is. The need to discard flag, the cubes left and the stations
+     * left are not hashed, since they follow from the rest.
+     * @return The hash.
+     */
+    public long getHash() {
+        return this.hash ^ this.counterHash() ^ this.infectionDeck.getHash()
+                ^ Long.rotateLeft(this.playerDeck.getHash(), 32);
+    } // getHash()
+
+    /** getCanonicalHash()
+     * This method gets a hash which is the same for two states that only differ by a rotation of
+     * the seats, that is, the same players in the same turn order but numbered from a different
+     * seat. It numbers the players from the current player onwards. Players have no roles, so
+     * nothing else about a seat matters, but any other shuffle of the seats changes who plays
+     * after whom, so it is a different position and gets a different hash.
+     * @return The hash.
+     */
+    public long getCanonicalHash() {
+        long h = this.getHash() ^ Zobrist.counter(Zobrist.CURR_PLAYER, this.currPlayer)
+                ^ Zobrist.counter(Zobrist.CURR_PLAYER, 0);
+        if(this.currPlayer == 0) {
+            return h;
+        }
+        for(int i = 0; i < this.numPlayers; i++) {
+            int seat = (i - this.currPlayer + this.numPlayers) % this.numPlayers;
+            h ^= Zobrist.hand(i, this.hands[i]) ^ Zobrist.hand(seat, this.hands[i])
+                    ^ Zobrist.location(i, this.currCity[i])
+                    ^ Zobrist.location(seat, this.currCity[i]);
+        }
+        return h;
+    } // getCanonicalHash()
+
+    /** computeHash()
+     * This method works out the hash of the state from scratch, which is slow, but can be used to
+     * check that getHash() has been kept up to date.
+     * @return The hash.
+     */
+    public long computeHash() {
+        return this.computeBaseHash() ^ this.counterHash() ^ this.infectionDeck.computeHash()
+                ^ Long.rotateLeft(this.playerDeck.computeHash(), 32);
+    } // computeHash()
+
+    /** verifyHash()
+     * @return Whether the hash that has been kept up to date matches the hash worked out from
+     * scratch.
+     */
+    public boolean verifyHash() {
+        return this.getHash() == this.computeHash();
+    } // verifyHash()
+
+    /** computeBaseHash()
+     * This is a helper method which hashes the parts of the state that are hashed as they change.
+     * @return The hash of the cubes, stations, hands, locations and diseases.
+     */
+    private long computeBaseHash() {
+        long h = Zobrist.stations(this.stations);
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            h ^= Zobrist.cubes(i, this.cubes[i]);
+        }
+        for(int i = 0; i < this.numPlayers; i++) {
+            h ^= Zobrist.hand(i, this.hands[i]) ^ Zobrist.location(i, this.currCity[i]);
+        }
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            h ^= Zobrist.disease(i, this.diseaseStates[i]);
+        }
+        return h;
+    } // computeBaseHash()
+
+    /** counterHash()
+     * This is a helper method which hashes the counters, which change too often to be worth
+     * hashing as they change.
+     * @return The hash of the counters.
+     */
+    private long counterHash() {
+        return Zobrist.counter(Zobrist.OUTBREAKS, this.outbreaks)
+                ^ Zobrist.counter(Zobrist.INF_RATE, this.infRate)
+                ^ Zobrist.counter(Zobrist.CURR_PLAYER, this.currPlayer)
+                ^ Zobrist.counter(Zobrist.ACTIONS_LEFT, this.actionsLeft)
+                ^ Zobrist.counter(Zobrist.EPI_LEFT, this.epiLeft)
+                ^ Zobrist.counter(Zobrist.GAME_CONDITION, this.gameCondition)
+                ^ Zobrist.counter(Zobrist.DRAW_CARDS_LEFT, this.drawCardsLeft);
+    } // counterHash()
+
+    /** gameLost()
+     * This method checks to see if the game is lost yet.
+     */
+    public void gameLost() {
+        // LOSE CONDITION #1: no more disease cubes to place
+        // LOSE CONDITION #2: eight outbreaks
+        if(this.emptyColors != 0 || this.outbreaks >= PandemicState.MAX_OUTBREAKS) {
+            this.gameCondition = PandemicState.LOSE;
+        }
+    } // gameLost()
+
+    /** gameWon()
+     * This method checks to see if the game is won yet.
+     */
+    public void gameWon() {
+        if(this.curedColors == ALL_COLORS) {
+            this.gameCondition = PandemicState.WIN;
+        }
+    } // gameWon()
+
+    /** getNumCured()
+     * @return The number of diseases that are cured or eradicated.
+     */
+    public int getNumCured() {
+        return Integer.bitCount(this.curedColors);
+    } // getNumCured()
+
+    /** canDo()
+     * @param player The player that is performing the action.
+     * @param action The action.
+     * @return Whether the player can perform the action right now.
+     */
+    public boolean canDo(int player, int action) {
+        return (this.getLegalActions(player) & (1 << action)) != 0;
+    } // canDo()
+
+    /** getLegalActions()
+     * This method checks to see what actions can be performed; not necessarily if they are valid.
+     * The result is only worked out again after the state has changed, so it is cheap to call as
+     * often as needed.
+     * @param player The player that is performing the action.
+     * @return A bitmask with the bit (1 << action) set for every doable action.
+     */
+    public int getLegalActions(int player) {
+        if(this.legalVersion != this.version || this.legalPlayer != player) {
+            this.checkLegalActions(player);
+        }
+        return this.legalActions;
+    } // getLegalActions()
+
+    /** forgetLegalActions()
+     * This method makes the next call to getLegalActions() work the legal actions out again, as
+     * it would after any change to the state. It is only needed to time how long that takes.
+     */
+    public void forgetLegalActions() {
+        this.legalVersion = -1;
+    } // forgetLegalActions()
+
+    /** getReason()
+     * @param player The player that is performing the action.
+     * @param action The action.
+     * @return LEGAL if the action is doable, otherwise the reason it is not.
+     */
+    public int getReason(int player, int action) {
+        this.getLegalActions(player);
+        return this.reasons[action];
+    } // getReason()
+
+    /** checkDoableActions()
+     * This method checks to see what actions can be performed; not necessarily if they are valid.
+     * @param player The player that is performing the action.
+     * @return An array containing all actions and whether they are doable.
+     */
+    public boolean[] checkDoableActions(int player) {
+        boolean[] canDo = new boolean[PandemicState.NUM_TYPE_OF_ACTIONS];
+        int legal = this.getLegalActions(player);
+        for(int i = 0; i < PandemicState.NUM_TYPE_OF_ACTIONS; i++) {
+            canDo[i] = (legal & (1 << i)) != 0;
+        }
+        return canDo;
+    } // checkDoableActions()
+
+    /** checkLegalActions()
+     * This is a helper method which works out which actions the player can do, and the reason
+     * for every action they cannot do.
+     * @param player The player that is performing the action.
+     */
+    private void checkLegalActions(int player) {
+        int[] why = this.reasons;
+
+        // make sure the game is still going, and the player is the current player
+        int reason = PandemicState.LEGAL;
+        if(this.gameCondition != PandemicState.PLAY) {
+            reason = PandemicState.GAME_OVER;
+        }
+        else if(this.currPlayer != player) {
+            reason = PandemicState.NOT_YOUR_TURN;
+        }
+        else if(this.needToDiscard()) {
+            reason = PandemicState.MUST_DISCARD;
+        }
+        else if(this.actionsLeft == 0) {
+            reason = PandemicState.NO_ACTIONS_LEFT;
+        }
+        for(int i = 0; i < PandemicState.NUM_TYPE_OF_ACTIONS; i++) {
+            why[i] = reason;
+        }
+
+        // if player needs to discard, that is the only action they can do
+        if(reason == PandemicState.MUST_DISCARD) {
+            why[PandemicState.DISCARD] = PandemicState.LEGAL;
+        }
+        else if(reason == PandemicState.NO_ACTIONS_LEFT) {
+            // if there are no actions left, player must end their turn
+            why[PandemicState.DISCARD] = PandemicState.NO_NEED_TO_DISCARD;
+            why[PandemicState.END_TURN] = PandemicState.LEGAL;
+        }
+        else if(reason == PandemicState.LEGAL) {
+            int curr = this.currCity[player];
+            boolean currCard = this.hasCard(player, curr);
+            boolean station = this.hasStation(curr);
+
+            why[PandemicState.DISCARD] = PandemicState.NO_NEED_TO_DISCARD;
+            why[PandemicState.END_TURN] = PandemicState.ACTIONS_REMAIN;
+
+            // if there are actions left, a player can always use the drive/ferry action, and they
+            // can always forgo actions
+            why[PandemicState.DRIVE_FERRY] = PandemicState.LEGAL;
+            why[PandemicState.PASS] = PandemicState.LEGAL;
+
+            // checks to make sure the player has at least one card
+            why[PandemicState.DIRECT_FLIGHT] = this.hands[player] != PlayerHand.EMPTY
+                    ? PandemicState.LEGAL : PandemicState.NO_CARDS;
+
+            // the player needs the card of the city they're in to charter a flight
+            why[PandemicState.CHARTER_FLIGHT] = currCard
+                    ? PandemicState.LEGAL : PandemicState.NO_CITY_CARD;
+
+            // and to build a station, if there isn't one already and there are some left
+            if(!currCard) {
+                why[PandemicState.BUILD] = PandemicState.NO_CITY_CARD;
+            }
+            else if(station) {
+                why[PandemicState.BUILD] = PandemicState.STATION_EXISTS;
+            }
+            else if(this.stationsLeft == 0) {
+                why[PandemicState.BUILD] = PandemicState.NO_STATIONS_LEFT;
+            }
+            else {
+                why[PandemicState.BUILD] = PandemicState.LEGAL;
+            }
+
+            // check to see if another player is in the same city, and one of the two has the card
+            // of that city
+            why[PandemicState.SHARE] = PandemicState.NO_PARTNER;
+            for(int i = 0; i < this.numPlayers; i++) {
+                if(i != player && this.currCity[i] == curr) {
+                    if(currCard || this.hasCard(i, curr)) {
+                        why[PandemicState.SHARE] = PandemicState.LEGAL;
+                    }
+                    else if(why[PandemicState.SHARE] == PandemicState.NO_PARTNER) {
+                        why[PandemicState.SHARE] = PandemicState.NO_CITY_CARD;
+                    }
+                }
+            }
+
+            // checks to see if there's a research station, and if there are at least two
+            if(!station) {
+                why[PandemicState.SHUTTLE_FLIGHT] = PandemicState.NO_STATION;
+                why[PandemicState.CURE] = PandemicState.NO_STATION;
+            }
+            else {
+                why[PandemicState.SHUTTLE_FLIGHT] = Long.bitCount(this.stations) > 1
+                        ? PandemicState.LEGAL : PandemicState.ONE_STATION;
+
+                // and if the current player has five cards of the same color
+                why[PandemicState.CURE] = this.cureColor(player) != Deck.NO_CARD
+                        ? PandemicState.LEGAL : PandemicState.NOT_ENOUGH_CARDS;
+            }
+
+            // checks to see if there is at least one cube at the city
+            why[PandemicState.TREAT] = this.cubes[curr] != 0
+                    ? PandemicState.LEGAL : PandemicState.NO_CUBES;
+        }
+
+        int legal = 0;
+        for(int i = 0; i < PandemicState.NUM_TYPE_OF_ACTIONS; i++) {
+            if(why[i] == PandemicState.LEGAL) {
+                legal |= 1 << i;
+            }
+        }
+
+        this.legalActions = legal;
+        this.legalPlayer = player;
+        this.legalVersion = this.version;
+    } // checkLegalActions()
+
+    /** getVersion()
+     * @return A number that changes whenever the state changes.
+     */
+    public int getVersion() {
+        return this.version;
+    } // getVersion()
+
+    /** cureColor()
+     * This is a helper method which finds an uncured disease the player has enough cards to cure.
+     * @param player The player whose hand we are checking.
+     * @return The color of the disease, or NO_CARD if there is none.
+     */
+    private int cureColor(int player) {
+        for(int col = 0; col < Disease.NUM_DISEASES; col++) {
+            if(this.diseaseStates[col] == Disease.UNCURED && PlayerHand.count(this.hands[player],
+                    col) >= PandemicState.REQUIRED_CARDS_CURE) {
+                return col;
+            }
+        }
+        return Deck.NO_CARD;
+    } // cureColor()
+
+    /** getCubes()
+     * @param city The id of the city.
+     * @return The number of cubes on the city.
+     */
+    public int getCubes(int city) {
+        return this.cubes[city];
+    } // getCubes()
+
+    /** hasStation()
+     * @param city The id of the city.
+     * @return Whether there is a research station there.
+     */
+    public boolean hasStation(int city) {
+        return city >= 0 && city < Deck.NUM_CITIES && (this.stations & (1L << city)) != 0;
+    } // hasStation()
+
+    /** getStations()
+     * @return A bitmask with bit i set for every city i that has a research station.
+     */
+    public long getStations() {
+        return this.stations;
+    } // getStations()
+
+    /** getLastOutbreaks()
+     * @return A bitmask of the cities that broke out during the last call to infectCity().
+     */
+    public long getLastOutbreaks() {
+        return this.lastOutbreaks;
+    } // getLastOutbreaks()
+
+    /** getLastInfected()
+     * @return A bitmask of the cities that got cubes during the last call to infectCity().
+     */
+    public long getLastInfected() {
+        return this.lastInfected;
+    } // getLastInfected()
+
+    /** getCubesLeft()
+     * @param color The color of the disease.
+     * @return The number of cubes of that disease left.
+     */
+    public int getCubesLeft(int color) {
+        return this.cubesLeft[color];
+    } // getCubesLeft()
+
+    /** getCubesOnBoard()
+     * @param color The color of the disease.
+     * @return The number of cubes of that disease on the board.
+     */
+    public int getCubesOnBoard(int color) {
+        return Disease.MAX_CUBES - this.cubesLeft[color];
+    } // getCubesOnBoard()
+
+    /** getInfectedMask()
+     * @param color The color of the disease.
+     * @return A bitmask with bit i set for every city i of that color with at least one cube.
+     */
+    public long getInfectedMask(int color) {
+        return (this.cubesLow | this.cubesHigh) & board.getColorMask(color);
+    } // getInfectedMask()
+
+    /** getCubeMask()
+     * @param color The color of the disease.
+     * @param num A number of cubes, from 0 to 3.
+     * @return A bitmask with bit i set for every city i of that color with exactly that many cubes.
+     */
+    public long getCubeMask(int color, int num) {
+        long low = (num & 1) != 0 ? this.cubesLow : ~this.cubesLow;
+        long high = (num & 2) != 0 ? this.cubesHigh : ~this.cubesHigh;
+        return low & high & board.getColorMask(color);
+    } // getCubeMask()
+
+    /** getDiseaseState()
+     * @param color The color of the disease.
+     * @return The state of the disease.
+     */
+    public int getDiseaseState(int color) {
+        return this.diseaseStates[color];
+    } // getDiseaseState()
+
+    /** getHand()
+     * @param player The player whose hand we are checking.
+     * @return The player's hand, see PlayerHand.
+     */
+    public long getHand(int player) {
+        return this.hands[player];
+    } // getHand()
+
+    /** getCurrCity()
+     * @param player The player.
+     * @return The id of the city the player is in.
+     */
+    public int getCurrCity(int player) {
+        return this.currCity[player];
+    } // getCurrCity()
+
+    /** getOutbreaks()
+     * @return The number of outbreaks so far.
+     */
+    public int getOutbreaks() {
+        return this.outbreaks;
+    } // getOutbreaks()
+
+    /** getInfRate()
+     * @return The infection rate.
+     */
+    public int getInfRate() {
+        return this.infRate;
+    } // getInfRate()
+
+    /** getStationsLeft()
+     * @return The number of research stations left to build.
+     */
+    public int getStationsLeft() {
+        return this.stationsLeft;
+    } // getStationsLeft()
+
+    /** getNumPlayers()
+     * @return The number of players.
+     */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    } // getNumPlayers()
+
+    /** getCurrPlayer()
+     * @return The player whose turn it is.
+     */
+    public int getCurrPlayer() {
+        return this.currPlayer;
+    } // getCurrPlayer()
+
+    /** getNeedToDiscard()
+     * @return Whether the current player needed to discard the last time it was checked.
+     */
+    public boolean getNeedToDiscard() {
+        return this.needToDiscard;
+    } // getNeedToDiscard()
+
+    /** getActionsLeft()
+     * @return The number of actions the current player has left.
+     */
+    public int getActionsLeft() {
+        return this.actionsLeft;
+    } // getActionsLeft()
+
+    /** getEpiLeft()
+     * @return The number of epidemics left.
+     */
+    public int getEpiLeft() {
+        return this.epiLeft;
+    } // getEpiLeft()
+
+    /** getGameCondition()
+     * @return Whether the game is being played, won, or lost.
+     */
+    public int getGameCondition() {
+        return this.gameCondition;
+    } // getGameCondition()
+
+    /** getRandom()
+     * @return The random number generator the game uses. A copy of a state starts with a copy of
+     * the original's generator, so it makes the same random choices unless it is given a new seed.
+     */
+    public GameRandom getRandom() {
+        return this.rng;
+    } // getRandom()
+
+    /** getInfectionDeck()
+     * @return The infection deck.
+     */
+    public Deck getInfectionDeck() {
+        return this.infectionDeck;
+    } // getInfectionDeck()
+
+    /** getPlayerDeck()
+     * @return The player deck.
+     */
+    public Deck getPlayerDeck() {
+        return this.playerDeck;
+    } // getPlayerDeck()
+}
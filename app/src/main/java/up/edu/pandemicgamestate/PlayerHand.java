@@ -0,0 +1,91 @@
+package up.edu.pandemicgamestate;
+
+/** PlayerHand
+ * This class works with player hands that are stored as a single long, where bit i is set if the
+ * player holds the city card with card id i. There are only 48 cities, so a whole hand fits in one
+ * long, and checking for a card, counting cards, or counting the cards of one color are all single
+ * bit operations. An empty hand is 0, so empty slots do not need their own cards.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class PlayerHand {
+    public static final long EMPTY = 0L;
+
+    private static final Board board = Board.getInstance();
+
+    /** PlayerHand()
+     * Hands are plain longs, so this class is never created.
+     */
+    private PlayerHand() {
+    } // PlayerHand()
+
+    /** add()
+     * @param hand The hand.
+     * @param card The id of the city card to add.
+     * @return The hand with the card added.
+     */
+    public static long add(long hand, int card) {
+        return hand | (1L << card);
+    } // add()
+
+    /** remove()
+     * @param hand The hand.
+     * @param card The id of the city card to remove.
+     * @return The hand with the card removed.
+     */
+    public static long remove(long hand, int card) {
+        return hand & ~(1L << card);
+    } // remove()
+
+    /** has()
+     * @param hand The hand.
+     * @param card The id of the card to look for.
+     * @return Whether the hand holds the card. Special cards are never in a hand.
+     */
+    public static boolean has(long hand, int card) {
+        return card >= 0 && card < Deck.NUM_CITIES && (hand & (1L << card)) != 0;
+    } // has()
+
+    /** size()
+     * @param hand The hand.
+     * @return The number of cards in the hand.
+     */
+    public static int size(long hand) {
+        return Long.bitCount(hand);
+    } // size()
+
+    /** count()
+     * @param hand The hand.
+     * @param color The color of the disease.
+     * @return The number of city cards of that color in the hand.
+     */
+    public static int count(long hand, int color) {
+        return Long.bitCount(hand & board.getColorMask(color));
+    } // count()
+
+    /** colorMask()
+     * @param color The color of the disease.
+     * @return A hand holding every city card of that color.
+     */
+    public static long colorMask(int color) {
+        return board.getColorMask(color);
+    } // colorMask()
+
+    /** removeColor()
+     * This method removes a number of cards of one color, which is what happens when a player
+     * cures a disease.
+     * @param hand The hand.
+     * @param color The color of the cards to remove.
+     * @param num The number of cards to remove.
+     * @return The hand with the cards removed.
+     */
+    public static long removeColor(long hand, int color, int num) {
+        long left = hand & board.getColorMask(color);
+        for(int i = 0; i < num && left != 0; i++) {
+            // clear the lowest card of the color
+            hand &= ~Long.lowestOneBit(left);
+            left &= left - 1;
+        }
+        return hand;
+    } // removeColor()
+}
@@ -0,0 +1,25 @@
+package up.edu.pandemicgamestate;
+
+/** Policy
+ * This is a way of playing the game, which is used by the Simulator to make the decisions of the
+ * players. A policy may be used by several threads at once, so it should not keep any state of its
+ * own between calls.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public interface Policy {
+    /** playActions()
+     * This method performs actions for the current player until they have no actions left.
+     * @param state The state of the game.
+     * @param rng A random number generator.
+     */
+    void playActions(PackedState state, GameRandom rng);
+
+    /** chooseDiscard()
+     * This method is called when the current player is over the hand limit.
+     * @param state The state of the game.
+     * @param rng A random number generator.
+     * @return The id of the card the current player discards.
+     */
+    int chooseDiscard(PackedState state, GameRandom rng);
+}
@@ -0,0 +1,84 @@
+package up.edu.pandemicgamestate;
+
+/** RandomPolicy
+ * This is a policy which plays a random doable action each time, which gives a baseline for how
+ * well other policies play.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class RandomPolicy implements Policy {
+    // the actions that use up one of the player's actions
+    private static final int ACTION_MASK = (1 << PandemicState.DISCARD) - 1
+            | (1 << PandemicState.PASS);
+
+    /** playActions()
+     * This method performs random doable actions for the current player until they have no
+     * actions left. If a chosen action does not work out, the player forgoes that action instead.
+     * @param state The state of the game.
+     * @param rng A random number generator.
+     */
+    @Override
+    public void playActions(PackedState state, GameRandom rng) {
+        int player = state.getCurrPlayer();
+        BoardGraph graph = Board.getInstance().getGraph();
+
+        while(state.getActionsLeft() > 0 && state.getGameCondition() == PandemicState.PLAY) {
+            int legal = state.getLegalActions(player) & ACTION_MASK;
+            if(legal == 0) {
+                return;
+            }
+
+            int curr = state.getCurrCity(player);
+            boolean done;
+            switch(randomBit(legal, rng)) {
+                case PandemicState.DRIVE_FERRY:
+                    done = state.driveFerry(player,
+                            graph.getNeighbor(curr, rng.nextInt(graph.getDegree(curr))));
+                    break;
+                case PandemicState.DIRECT_FLIGHT:
+                    done = state.directFlight(player, randomBit(state.getHand(player), rng));
+                    break;
+                case PandemicState.CHARTER_FLIGHT:
+                    done = state.charterFlight(player, rng.nextInt(Deck.NUM_CITIES));
+                    break;
+                case PandemicState.SHUTTLE_FLIGHT:
+                    done = state.shuttleFlight(player,
+                            randomBit(state.getStations() & ~(1L << curr), rng));
+                    break;
+                case PandemicState.TREAT: done = state.treat(player); break;
+                case PandemicState.BUILD: done = state.buildStation(player); break;
+                case PandemicState.SHARE: done = state.share(player); break;
+                case PandemicState.CURE: done = state.cure(player); break;
+                default: done = false; break;
+            }
+
+            if(!done) {
+                state.forgoAction(player);
+            }
+        }
+    } // playActions()
+
+    /** chooseDiscard()
+     * This method discards a random card from the current player's hand.
+     * @param state The state of the game.
+     * @param rng A random number generator.
+     * @return The id of the card the current player discards.
+     */
+    @Override
+    public int chooseDiscard(PackedState state, GameRandom rng) {
+        return randomBit(state.getHand(state.getCurrPlayer()), rng);
+    } // chooseDiscard()
+
+    /** randomBit()
+     * This is a helper method which picks one of the set bits of a bitmask at random.
+     * @param mask The bitmask, which must not be 0.
+     * @param rng A random number generator.
+     * @return The index of the chosen bit.
+     */
+    private static int randomBit(long mask, GameRandom rng) {
+        for(int skip = rng.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    } // randomBit()
+}
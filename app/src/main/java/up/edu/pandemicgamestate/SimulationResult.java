@@ -0,0 +1,144 @@
+package up.edu.pandemicgamestate;
+
+/** SimulationResult
+ * This holds the totals from a batch of simulated games, such as how many were won or lost and
+ * how many turns they lasted. Each thread of the Simulator fills in its own result, and the results
+ * are merged together at the end.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class SimulationResult {
+    // instance variables
+    private int games;
+    private int wins;
+    private int losses;
+    private long turns;
+    private long outbreaks;
+    private long[] cubesLeft;
+
+    /** SimulationResult()
+     * This constructor makes an empty result.
+     */
+    public SimulationResult() {
+        this.cubesLeft = new long[Disease.NUM_DISEASES];
+    } // SimulationResult()
+
+    /** addGame()
+     * This method adds one finished (or stopped) game to the totals.
+     * @param state The state at the end of the game.
+     * @param numTurns The number of turns that were played.
+     */
+    public void addGame(PackedState state, int numTurns) {
+        this.games++;
+        if(state.getGameCondition() == PandemicState.WIN) {
+            this.wins++;
+        }
+        else if(state.getGameCondition() == PandemicState.LOSE) {
+            this.losses++;
+        }
+        this.turns += numTurns;
+        this.outbreaks += state.getOutbreaks();
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            // a disease that ran out of cubes counts as none left
+            this.cubesLeft[i] += Math.max(0, state.getCubesLeft(i));
+        }
+    } // addGame()
+
+    /** merge()
+     * This method adds the totals of another result to this one.
+     * @param other The other result.
+     */
+    public void merge(SimulationResult other) {
+        this.games += other.games;
+        this.wins += other.wins;
+        this.losses += other.losses;
+        this.turns += other.turns;
+        this.outbreaks += other.outbreaks;
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            this.cubesLeft[i] += other.cubesLeft[i];
+        }
+    } // merge()
+
+    /** getGames()
+     * @return The number of games played.
+     */
+    public int getGames() {
+        return this.games;
+    } // getGames()
+
+    /** getWins()
+     * @return The number of games won.
+     */
+    public int getWins() {
+        return this.wins;
+    } // getWins()
+
+    /** getLosses()
+     * @return The number of games lost.
+     */
+    public int getLosses() {
+        return this.losses;
+    } // getLosses()
+
+    /** getUnfinished()
+     * @return The number of games that hit the turn limit before they were won or lost.
+     */
+    public int getUnfinished() {
+        return this.games - this.wins - this.losses;
+    } // getUnfinished()
+
+    /** getWinRate()
+     * @return The fraction of games won.
+     */
+    public double getWinRate() {
+        return this.games == 0 ? 0 : (double) this.wins / this.games;
+    } // getWinRate()
+
+    /** getLossRate()
+     * @return The fraction of games lost.
+     */
+    public double getLossRate() {
+        return this.games == 0 ? 0 : (double) this.losses / this.games;
+    } // getLossRate()
+
+    /** getAverageTurns()
+     * @return The average number of turns survived.
+     */
+    public double getAverageTurns() {
+        return this.games == 0 ? 0 : (double) this.turns / this.games;
+    } // getAverageTurns()
+
+    /** getAverageOutbreaks()
+     * @return The average number of outbreaks at the end of a game.
+     */
+    public double getAverageOutbreaks() {
+        return this.games == 0 ? 0 : (double) this.outbreaks / this.games;
+    } // getAverageOutbreaks()
+
+    /** getAverageCubesLeft()
+     * @param color The color of the disease.
+     * @return The average number of cubes of that color left at the end of a game.
+     */
+    public double getAverageCubesLeft(int color) {
+        return this.games == 0 ? 0 : (double) this.cubesLeft[color] / this.games;
+    } // getAverageCubesLeft()
+
+    /** toString()
+     * @return The totals, in a readable form.
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("Games: ").append(this.games)
+                .append(", Won: ").append(this.wins)
+                .append(", Lost: ").append(this.losses)
+                .append(", Unfinished: ").append(this.getUnfinished()).append('\n');
+        str.append("Average turns: ").append(this.getAverageTurns())
+                .append(", Average outbreaks: ").append(this.getAverageOutbreaks()).append('\n');
+        str.append("Average cubes left:");
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            str.append(' ').append(this.getAverageCubesLeft(i));
+        }
+        return str.toString();
+    } // toString()
+}
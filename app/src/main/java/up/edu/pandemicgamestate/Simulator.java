@@ -0,0 +1,222 @@
+package up.edu.pandemicgamestate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Simulator
+ * This plays many full games at once using a Policy, spreading the games over every core, and adds
+ * up how they went. Each thread takes the next game number when it finishes a game, so fast and
+ * slow games even out between threads, and each thread reuses one state for all of its games.
+ * Game number i always uses the seed seed + i, so a batch gives the same totals no matter how many
+ * threads play it.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class Simulator {
+    // a game that has not ended after this many turns is stopped and counted as unfinished
+    public static final int MAX_TURNS = 1000;
+
+    // instance variables
+    private final Policy policy;
+    private final int numThreads;
+    private final ExecutorService pool;
+
+    /** Simulator()
+     * This constructor makes a simulator that uses one thread per core.
+     * @param policy The policy that every player uses.
+     */
+    public Simulator(Policy policy) {
+        this(policy, Runtime.getRuntime().availableProcessors());
+    } // Simulator()
+
+    /** Simulator()
+     * @param policy The policy that every player uses.
+     * @param numThreads The number of threads to play games on.
+     */
+    public Simulator(Policy policy, int numThreads) {
+        this.policy = policy;
+        this.numThreads = Math.max(1, numThreads);
+        this.pool = Executors.newFixedThreadPool(this.numThreads);
+    } // Simulator()
+
+    /** run()
+     * This method plays a batch of new games with shuffled decks.
+     * @param numPlayers The number of players in each game.
+     * @param numGames The number of games to play.
+     * @param seed The seed of the first game.
+     * @return The totals of all of the games.
+     */
+    public SimulationResult run(int numPlayers, int numGames, long seed) {
+        return this.runAll(null, numPlayers, numGames, seed);
+    } // run()
+
+    /** run()
+     * This method plays a batch of games which all continue on from the same state. Each game
+     * deals the cards nobody has seen again, the way a Determinizer does, so the games draw
+     * different cards. Only the order that is hidden from the players is dealt again; the cards
+     * in each hand, the cubes and anything the players have learned about the decks are kept.
+     * @param start The state every game starts from, which is not changed.
+     * @param numGames The number of games to play.
+     * @param seed The seed of the first game.
+     * @return The totals of all of the games.
+     */
+    public SimulationResult run(PackedState start, int numGames, long seed) {
+        return this.runAll(start, start.getNumPlayers(), numGames, seed);
+    } // run()
+
+    /** shutdown()
+     * This method stops the threads of the simulator once it is no longer needed.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    } // shutdown()
+
+    /** runAll()
+     * This is a helper method which hands the games out to the threads and merges their totals.
+     * @param start The state every game starts from, or null to start new games.
+     * @param numPlayers The number of players in each game.
+     * @param numGames The number of games to play.
+     * @param seed The seed of the first game.
+     * @return The totals of all of the games.
+     */
+    private SimulationResult runAll(final PackedState start, final int numPlayers,
+                                    final int numGames, final long seed) {
+        final AtomicInteger next = new AtomicInteger();
+        List<Future<SimulationResult>> parts = new ArrayList<>();
+        for(int i = 0; i < Math.min(this.numThreads, numGames); i++) {
+            // copying the start marks its arrays as shared, so it is only done on this thread
+            final PackedState game = start == null ? null : new PackedState(start);
+            parts.add(this.pool.submit(new Callable<SimulationResult>() {
+                @Override
+                public SimulationResult call() {
+                    return playGames(start, game, numPlayers, numGames, seed, next);
+                }
+            }));
+        }
+
+        SimulationResult total = new SimulationResult();
+        try {
+            for(int i = 0; i < parts.size(); i++) {
+                total.merge(parts.get(i).get());
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        }
+        catch(ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+        return total;
+    } // runAll()
+
+    /** playGames()
+     * This is a helper method run by each thread, which keeps taking the next game number until
+     * every game has been played.
+     * @param start The state every game starts from, or null to start new games.
+     * @param game The state this thread plays its games in, or null to start new games.
+     * @param numPlayers The number of players in each game.
+     * @param numGames The number of games to play.
+     * @param seed The seed of the first game.
+     * @param next The number of the next game to play, shared between the threads.
+     * @return The totals of the games this thread played.
+     */
+    private SimulationResult playGames(PackedState start, PackedState game, int numPlayers,
+                                       int numGames, long seed, AtomicInteger next) {
+        SimulationResult result = new SimulationResult();
+        GameRandom deal = new GameRandom();
+
+        for(int i = next.getAndIncrement(); i < numGames; i = next.getAndIncrement()) {
+            if(start == null) {
+                game = new PackedState(numPlayers, new GameRandom(seed + i));
+            }
+            else {
+                deal.setSeed(seed + i);
+                Determinizer.sample(start, deal, game);
+            }
+            result.addGame(game, playGame(this.policy, game, game.getRandom()));
+        }
+        return result;
+    } // playGames()
+
+    /** playGame()
+     * This method plays a game until it is won, lost, or reaches the turn limit. It only uses the
+     * calling thread, so it can be called without making a simulator.
+     * @param policy The policy that every player uses.
+     * @param game The state of the game, which is played in place.
+     * @param rng A random number generator.
+     * @return The number of turns that were played.
+     */
+    public static int playGame(Policy policy, PackedState game, GameRandom rng) {
+        int turns = 0;
+        while(game.getGameCondition() == PandemicState.PLAY && turns < MAX_TURNS) {
+            if(!playTurn(policy, game, rng)) {
+                break;
+            }
+            turns++;
+        }
+        return turns;
+    } // playGame()
+
+    /** playTurn()
+     * This method plays the current player's turn, from their first action to the end of the turn.
+     * Like playGame(), it only uses the calling thread.
+     * @param policy The policy that the player uses.
+     * @param game The state of the game, which is played in place.
+     * @param rng A random number generator.
+     * @return Whether the turn was finished. It is not finished if the game ended during the
+     * player's actions, or if the turn could not be ended.
+     */
+    public static boolean playTurn(Policy policy, PackedState game, GameRandom rng) {
+        int player = game.getCurrPlayer();
+
+        // the last card drawn in a turn can leave the next player over the hand limit, and being
+        // given a card can put the player over it in the middle of their actions
+        while(game.getActionsLeft() > 0 && game.getGameCondition() == PandemicState.PLAY) {
+            if(!discardDown(policy, game, player, rng)) {
+                return false;
+            }
+            int before = game.getActionsLeft();
+            policy.playActions(game, rng);
+            if(game.getActionsLeft() == before && !game.needToDiscard()) {
+                // the policy has nothing left to do, so let endTurn say why
+                break;
+            }
+        }
+        if(game.getGameCondition() != PandemicState.PLAY) {
+            return false;
+        }
+
+        // endTurn stops when the player has to discard, and carries on once they have
+        while(!game.endTurn(player) && game.getNeedToDiscard()
+                && discardDown(policy, game, player, rng)) {
+            // try to end the turn again now that the hand is small enough
+        }
+        return game.getCurrPlayer() != player || game.getGameCondition() != PandemicState.PLAY;
+    } // playTurn()
+
+    /** discardDown()
+     * This is a helper method which has the player discard the cards the policy chooses until they
+     * are within the hand limit.
+     * @param policy The policy that the player uses.
+     * @param game The state of the game.
+     * @param player The current player.
+     * @param rng A random number generator.
+     * @return Whether the player ended up within the hand limit.
+     */
+    private static boolean discardDown(Policy policy, PackedState game, int player,
+                                       GameRandom rng) {
+        while(game.needToDiscard()) {
+            if(!game.discard(player, policy.chooseDiscard(game, rng))) {
+                return false;
+            }
+        }
+        return true;
+    } // discardDown()
+}
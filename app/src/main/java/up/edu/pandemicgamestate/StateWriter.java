@@ -0,0 +1,234 @@
+package up.edu.pandemicgamestate;
+
+import java.io.IOException;
+
+/** StateWriter
+ * This writes out a game state piece by piece to any Appendable, such as a StringBuilder or a
+ * Writer for a log file, so that logging a state never has to build the whole text as one String
+ * first. How much is written depends on the detail level.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class StateWriter {
+    // detail levels:
+    // SUMMARY - the diseases, the current variables, and the players
+    // CITIES - the summary, plus the stations, color and cubes of every city
+    // FULL - everything, including the infection deck and the hit boxes and connections of cities
+    public static final int SUMMARY = 0;
+    public static final int CITIES = 1;
+    public static final int FULL = 2;
+
+    private static final String[] DISEASE_STATES = {"Uncured", "Cured", "Eradicated"};
+
+    // the hitboxes are written with at most two digits after the point, see appendFloat()
+    private static final int FLOAT_SCALE = 100;
+
+    private static final Board board = Board.getInstance();
+
+    /** StateWriter()
+     * Everything is done by the static write() method, so this class is never created.
+     */
+    private StateWriter() {
+    } // StateWriter()
+
+    /** write()
+     * This method writes out a game state.
+     * @param state The state to write.
+     * @param out Where to write the state.
+     * @param detail How much to write, which is SUMMARY, CITIES or FULL.
+     * @throws IOException If out cannot be written to.
+     */
+    public static void write(PackedState state, Appendable out, int detail) throws IOException {
+        out.append("PANDEMIC GAME STATE\n");
+
+        out.append("\t-DISEASES-\n");
+        for(int i = 0; i < Disease.NUM_DISEASES; i++) {
+            out.append("Color: ");
+            appendInt(out, i);
+            out.append("\nCubes Left: ");
+            appendInt(out, state.getCubesLeft(i));
+            out.append("\nState: ").append(DISEASE_STATES[state.getDiseaseState(i)]).append('\n');
+        }
+        out.append("________________\n");
+
+        out.append("\t-CURRENT VARIABLES-\n");
+        appendLine(out, "Outbreaks: ", state.getOutbreaks());
+        appendLine(out, "Infection Rate: ", state.getInfRate());
+        appendLine(out, "Research Stations Left: ", state.getStationsLeft());
+        appendLine(out, "Number of Players: ", state.getNumPlayers());
+        appendLine(out, "Current Player: ", state.getCurrPlayer());
+        out.append("Need to Discard: ").append(state.getNeedToDiscard() ? "true" : "false");
+        out.append('\n');
+        appendLine(out, "Actions Left: ", state.getActionsLeft());
+        appendLine(out, "Epidemics Left: ", state.getEpiLeft());
+
+        int numPlayers = state.getNumPlayers();
+        out.append("Player Hands: \n");
+        for(int i = 0; i < numPlayers; i++) {
+            out.append("Player ");
+            appendInt(out, i);
+            out.append(": ");
+
+            // hands are written in card id order, with empty slots up to one over the hand limit
+            long hand = state.getHand(i);
+            for(int j = 0; j < PandemicState.HAND_LIMIT + 1; j++) {
+                out.append(' ');
+                if(hand != PlayerHand.EMPTY) {
+                    out.append(board.getCard(Long.numberOfTrailingZeros(hand)).getName());
+                    hand &= hand - 1;
+                }
+                else {
+                    out.append(board.getCard(Deck.NO_CARD).getName());
+                }
+            }
+            out.append('\n');
+        }
+        out.append("Player Locations: \n");
+        for(int i = 0; i < numPlayers; i++) {
+            out.append("Player ");
+            appendInt(out, i);
+            out.append(" Location: ").append(board.getCard(state.getCurrCity(i)).getName());
+            out.append('\n');
+        }
+
+        if(detail >= FULL) {
+            Deck infectionDeck = state.getInfectionDeck();
+            int size = infectionDeck.getDeckSize();
+            out.append("Infection Deck: \n");
+            for(int i = 0; i < size; i++) {
+                out.append(infectionDeck.getCityAtIndex(i).getName()).append('\n');
+            }
+            appendLine(out, "Infection Deck Index Location: ", infectionDeck.getCurrPos());
+        }
+
+        if(detail >= CITIES) {
+            Deck playerDeck = state.getPlayerDeck();
+            int size = playerDeck.getDeckSize();
+            out.append("Player Deck/City Information: \n");
+            for(int i = 0; i < size; i++) {
+                writeCity(state, out, playerDeck.getCityAtIndex(i), detail);
+            }
+            appendLine(out, "Player Deck Index Location: ", playerDeck.getCurrPos());
+        }
+
+        out.append("________________\n");
+        out.append("--------------------------------------------\n");
+    } // write()
+
+    /** writeCity()
+     * This is a helper method which writes out one city.
+     * @param state The state the city is in.
+     * @param out Where to write the city.
+     * @param city The city.
+     * @param detail How much to write.
+     * @throws IOException If out cannot be written to.
+     */
+    private static void writeCity(PackedState state, Appendable out, City city, int detail)
+            throws IOException {
+        out.append("City Name: ").append(city.getName()).append(":\n");
+
+        // an epidemic card in the player deck has no city to describe
+        if(city.getId() == Deck.EPIDEMIC_CARD) {
+            return;
+        }
+
+        out.append("\t Has Research Station: ");
+        out.append(state.hasStation(city.getId()) ? "true" : "false").append('\n');
+        appendLine(out, "\t Color: ", city.getColor());
+
+        if(detail >= FULL) {
+            out.append("\t Location/Hit Box: \n");
+            float[][] location = city.getLocation();
+            for(int j = 0; j < 2; j++) {
+                for(int k = 0; k < 2; k++) {
+                    out.append('\t');
+                    appendFloat(out, location[j][k]);
+                    out.append('\n');
+                }
+            }
+        }
+
+        appendLine(out, "\t Number of Cubes: ", state.getCubes(city.getId()));
+
+        if(detail >= FULL) {
+            out.append("\t Connections: \n");
+            City[] connections = city.getConnections();
+            for(int j = 0; j < connections.length; j++) {
+                out.append('\t').append(connections[j].getName()).append('\n');
+            }
+        }
+    } // writeCity()
+
+    /** appendLine()
+     * This is a helper method which writes a label and a number on their own line.
+     * @param out Where to write the line.
+     * @param label The label.
+     * @param num The number.
+     * @throws IOException If out cannot be written to.
+     */
+    private static void appendLine(Appendable out, String label, int num) throws IOException {
+        out.append(label);
+        appendInt(out, num);
+        out.append('\n');
+    } // appendLine()
+
+    /** appendInt()
+     * This is a helper method which writes a number one digit at a time, so that no String is made
+     * for it.
+     * @param out Where to write the number.
+     * @param num The number.
+     * @throws IOException If out cannot be written to.
+     */
+    private static void appendInt(Appendable out, int num) throws IOException {
+        if(out instanceof StringBuilder) {
+            ((StringBuilder) out).append(num);
+            return;
+        }
+        if(num < 0) {
+            out.append('-');
+        }
+        else {
+            // work with negative numbers so that Integer.MIN_VALUE does not overflow
+            num = -num;
+        }
+
+        // find the place value of the first digit
+        int place = -1;
+        while(place >= -Integer.MAX_VALUE / 10 && num <= place * 10) {
+            place *= 10;
+        }
+        for(; place != 0; place /= 10) {
+            int digit = num / place;
+            out.append((char) ('0' + digit));
+            num -= digit * place;
+        }
+    } // appendInt()
+
+    /** appendFloat()
+     * This is a helper method which writes a number with at most two digits after the point
+     * (see FLOAT_SCALE), one digit at a time like appendInt(), so that no String is made for it.
+     * Zeros at the end are left off, but there is always at least one digit after the point, so a
+     * hitbox is written the same way Float.toString() would write it.
+     * @param out Where to write the number.
+     * @param num The number.
+     * @throws IOException If out cannot be written to.
+     */
+    private static void appendFloat(Appendable out, float num) throws IOException {
+        long fixed = Math.round((double) num * FLOAT_SCALE);
+        if(fixed < 0) {
+            out.append('-');
+            fixed = -fixed;
+        }
+        appendInt(out, (int) (fixed / FLOAT_SCALE));
+        out.append('.');
+
+        int fraction = (int) (fixed % FLOAT_SCALE);
+        int place = FLOAT_SCALE / 10;
+        do {
+            int digit = fraction / place;
+            out.append((char) ('0' + digit));
+            fraction -= digit * place;
+            place /= 10;
+        } while(fraction != 0);
+    } // appendFloat()
+}
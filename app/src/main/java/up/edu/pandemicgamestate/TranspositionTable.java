@@ -0,0 +1,273 @@
+package up.edu.pandemicgamestate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** TranspositionTable
+ * This remembers what a search found out about positions it has already seen, by their hash, so
+ * that a position reached through different orders of moves is only searched once. The table has
+ * a fixed size and is made of two flat arrays of longs, so it never allocates once it is made.
+ * MctsBot uses it to share the value of a position between every path through the tree that
+ * reaches it.
+ *
+ * Each hash picks a bucket of two slots. The first slot keeps the deepest result from the current
+ * search and the second always takes the newest result, so deep results are not pushed out by a
+ * flood of shallow ones, but results from old searches are. Several threads can use the table at
+ * once without locks: each slot stores its key XORed with its entry, so a slot that two threads
+ * wrote at the same time does not match either key and is treated as a miss.
+ *
+ * An entry is one long holding a value, a move, a depth and the age of the search that stored it.
+ * Counting probes, hits, stores and evictions is turned off unless asked for when the table is
+ * made, since every thread would be updating the same counters on every lookup.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class TranspositionTable {
+    // returned by probe() when the position is not in the table
+    public static final long MISS = 0;
+
+    // the layout of an entry, from the lowest bits: value (32), move (16), depth (8), age (7),
+    // and a bit which is always set so that no entry is equal to MISS
+    private static final long VALID = 1L << 63;
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int AGE_SHIFT = 56;
+    private static final int AGE_MASK = 0x7f;
+
+    // instance variables
+    private final AtomicLongArray keys;
+    private final AtomicLongArray entries;
+    private final int mask;
+    private volatile int age;
+
+    // the counters, which are only updated if counting is turned on
+    private final boolean counting;
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** TranspositionTable()
+     * This constructor makes a table that does not count its lookups.
+     * @param buckets The number of buckets, which is rounded up to a power of two. Each bucket
+     * takes 32 bytes.
+     */
+    public TranspositionTable(int buckets) {
+        this(buckets, false);
+    } // TranspositionTable()
+
+    /** TranspositionTable()
+     * @param buckets The number of buckets, which is rounded up to a power of two. Each bucket
+     * takes 32 bytes.
+     * @param counting Whether to count probes, hits, stores and evictions, which is meant for
+     * debugging and tuning, since it slows down a table used by several threads.
+     */
+    public TranspositionTable(int buckets, boolean counting) {
+        int size = buckets <= 1 ? 1 : Integer.highestOneBit(buckets - 1) << 1;
+        this.mask = size - 1;
+        this.keys = new AtomicLongArray(size * 2);
+        this.entries = new AtomicLongArray(size * 2);
+        this.age = 1;
+        this.counting = counting;
+    } // TranspositionTable()
+
+    /** key()
+     * This method gets the key a state is stored under. It starts from getCanonicalHash(), so
+     * the key is the same for every rotation of the seats, and then takes out the order of both
+     * decks, keeping only how far each has been drawn. A bot must not look at the order of the
+     * cards nobody has seen, and leaving it out means that every deal of them that a search
+     * tries shares one entry.
+     * @param state A game state.
+     * @return The key.
+     */
+    public static long key(PackedState state) {
+        Deck infection = state.getInfectionDeck();
+        Deck player = state.getPlayerDeck();
+        return state.getCanonicalHash()
+                ^ infection.getHash() ^ Zobrist.deckPosition(infection.getCurrPos())
+                ^ Long.rotateLeft(player.getHash() ^ Zobrist.deckPosition(player.getCurrPos()), 32);
+    } // key()
+
+    /** probe()
+     * This method looks up a position.
+     * @param key The key of the position.
+     * @return The entry stored for the position, or MISS.
+     */
+    public long probe(long key) {
+        if(this.counting) {
+            this.probes.incrementAndGet();
+        }
+        int slot = this.slot(key);
+        for(int i = slot; i < slot + 2; i++) {
+            long entry = this.entries.get(i);
+            if(entry != MISS && (this.keys.get(i) ^ entry) == key) {
+                if(this.counting) {
+                    this.hits.incrementAndGet();
+                }
+                return entry;
+            }
+        }
+        return MISS;
+    } // probe()
+
+    /** store()
+     * This method stores what a search found out about a position.
+     * @param key The key of the position.
+     * @param value The value the search gave the position.
+     * @param move The best move found, or 0. Only the low 16 bits are kept.
+     * @param depth How deep the search went below the position, from 0 to 255.
+     */
+    public void store(long key, int value, int move, int depth) {
+        int age = this.age;
+        long entry = VALID | (long) age << AGE_SHIFT | (long) (depth & 0xff) << DEPTH_SHIFT
+                | (long) (move & 0xffff) << MOVE_SHIFT | (value & 0xffffffffL);
+        if(this.counting) {
+            this.stores.incrementAndGet();
+        }
+
+        int slot = this.slot(key);
+        long first = this.entries.get(slot);
+        boolean firstSame = first != MISS && (this.keys.get(slot) ^ first) == key;
+        long second = this.entries.get(slot + 1);
+        boolean secondSame = second != MISS && (this.keys.get(slot + 1) ^ second) == key;
+
+        if(firstSame || first == MISS || getAge(first) != age || depth >= getDepth(first)) {
+            // the new entry takes the first slot, and what was there moves down to the second
+            if(!firstSame && first != MISS) {
+                if(this.counting && !secondSame && second != MISS) {
+                    this.evictions.incrementAndGet();
+                }
+                this.write(slot + 1, this.keys.get(slot) ^ first, first);
+            }
+            else if(firstSame && secondSame) {
+                // do not keep an older copy of the same position
+                this.write(slot + 1, 0, MISS);
+            }
+            this.write(slot, key, entry);
+        }
+        else {
+            if(this.counting && !secondSame && second != MISS) {
+                this.evictions.incrementAndGet();
+            }
+            this.write(slot + 1, key, entry);
+        }
+    } // store()
+
+    /** newSearch()
+     * This method starts a new age, so that entries from earlier searches are replaced first.
+     */
+    public void newSearch() {
+        int next = (this.age + 1) & AGE_MASK;
+        this.age = next == 0 ? 1 : next;
+    } // newSearch()
+
+    /** clear()
+     * This method empties the table and resets the counters.
+     */
+    public void clear() {
+        for(int i = 0; i < this.entries.length(); i++) {
+            this.write(i, 0, MISS);
+        }
+        this.probes.set(0);
+        this.hits.set(0);
+        this.stores.set(0);
+        this.evictions.set(0);
+    } // clear()
+
+    /** write()
+     * This is a helper method which fills a slot.
+     * @param slot The index of the slot.
+     * @param key The key.
+     * @param entry The entry.
+     */
+    private void write(int slot, long key, long entry) {
+        this.entries.set(slot, entry);
+        this.keys.set(slot, key ^ entry);
+    } // write()
+
+    /** slot()
+     * This is a helper method which finds the first slot of a key's bucket.
+     * @param key The key.
+     * @return The index of the first slot.
+     */
+    private int slot(long key) {
+        // the low bits of the hash pick the bucket, so mix in the high bits as well
+        return ((int) (key ^ (key >>> 32)) & this.mask) << 1;
+    } // slot()
+
+    /** getValue()
+     * @param entry An entry from probe().
+     * @return The value stored in the entry.
+     */
+    public static int getValue(long entry) {
+        return (int) entry;
+    } // getValue()
+
+    /** getMove()
+     * @param entry An entry from probe().
+     * @return The move stored in the entry.
+     */
+    public static int getMove(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0xffff;
+    } // getMove()
+
+    /** getDepth()
+     * @param entry An entry from probe().
+     * @return The depth stored in the entry.
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xff;
+    } // getDepth()
+
+    /** getAge()
+     * This is a helper method which gets the age of the search that stored an entry.
+     * @param entry An entry.
+     * @return The age.
+     */
+    private static int getAge(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    } // getAge()
+
+    /** getProbes()
+     * @return The number of lookups, or 0 if the table is not counting.
+     */
+    public long getProbes() {
+        return this.probes.get();
+    } // getProbes()
+
+    /** getHits()
+     * @return The number of lookups that found their position.
+     */
+    public long getHits() {
+        return this.hits.get();
+    } // getHits()
+
+    /** getHitRate()
+     * @return The fraction of lookups that found their position.
+     */
+    public double getHitRate() {
+        long probes = this.probes.get();
+        return probes == 0 ? 0 : (double) this.hits.get() / probes;
+    } // getHitRate()
+
+    /** getStores()
+     * @return The number of results stored.
+     */
+    public long getStores() {
+        return this.stores.get();
+    } // getStores()
+
+    /** getEvictions()
+     * @return The number of results for other positions that were pushed out of the table.
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    } // getEvictions()
+
+    /** getCapacity()
+     * @return The number of entries the table can hold.
+     */
+    public int getCapacity() {
+        return this.entries.length();
+    } // getCapacity()
+}
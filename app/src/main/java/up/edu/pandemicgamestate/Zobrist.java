@@ -0,0 +1,167 @@
+package up.edu.pandemicgamestate;
+
+/** Zobrist
+ * These are the random keys used to hash game states. The hash of a state is the XOR of the key
+ * of every fact about it (this city has two cubes, that player holds this card, ...), so when one
+ * fact changes the hash can be updated by XORing out the old key and XORing in the new one,
+ * instead of hashing the whole state again. The keys come from a fixed seed, so the same state
+ * always has the same hash, on every device.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public final class Zobrist {
+    // the most players, deck cards, and counter values that have their own keys
+    public static final int MAX_PLAYERS = 4;
+    public static final int MAX_DECK = 64;
+    public static final int MAX_COUNTER = 64;
+
+    // counters which are hashed, see counter()
+    public static final int OUTBREAKS = 0;
+    public static final int INF_RATE = 1;
+    public static final int CURR_PLAYER = 2;
+    public static final int ACTIONS_LEFT = 3;
+    public static final int EPI_LEFT = 4;
+    public static final int GAME_CONDITION = 5;
+    public static final int DRAW_CARDS_LEFT = 6;
+    private static final int NUM_COUNTERS = 7;
+
+    private static final int CITIES = Deck.NUM_CITIES;
+    private static final long SEED = 0x50414e44454d4943L;
+
+    private static final long[] cubes;
+    private static final long[] stations;
+    private static final long[] hands;
+    private static final long[] locations;
+    private static final long[] diseases;
+    private static final long[] counters;
+    private static final long[] deckCards;
+    private static final long[] deckPositions;
+    private static final long[] deckHeads;
+
+    static {
+        GameRandom rng = new GameRandom(SEED);
+        cubes = makeKeys(rng, CITIES * (City.MAX_CUBES + 1));
+        stations = makeKeys(rng, CITIES);
+        hands = makeKeys(rng, MAX_PLAYERS * CITIES);
+        locations = makeKeys(rng, MAX_PLAYERS * CITIES);
+        diseases = makeKeys(rng, Disease.NUM_DISEASES * 3);
+        counters = makeKeys(rng, NUM_COUNTERS * MAX_COUNTER);
+        deckCards = makeKeys(rng, MAX_DECK * MAX_DECK);
+        deckPositions = makeKeys(rng, MAX_DECK + 1);
+        deckHeads = makeKeys(rng, MAX_DECK);
+
+        // a city with no cubes adds nothing, so an empty board hashes to 0
+        for(int i = 0; i < CITIES; i++) {
+            cubes[i * (City.MAX_CUBES + 1)] = 0;
+        }
+
+        // and so does a deck whose ring starts at the start of its array
+        deckHeads[0] = 0;
+    }
+
+    /** Zobrist()
+     * The keys are all static, so this class is never created.
+     */
+    private Zobrist() {
+    } // Zobrist()
+
+    /** makeKeys()
+     * This is a helper method which makes a table of random keys.
+     * @param rng The random number generator.
+     * @param num The number of keys.
+     * @return The keys.
+     */
+    private static long[] makeKeys(GameRandom rng, int num) {
+        long[] keys = new long[num];
+        for(int i = 0; i < num; i++) {
+            keys[i] = rng.nextLong();
+        }
+        return keys;
+    } // makeKeys()
+
+    /** cubes()
+     * @param city The id of the city.
+     * @param num The number of cubes on the city, from 0 to 3.
+     * @return The key.
+     */
+    public static long cubes(int city, int num) {
+        return cubes[city * (City.MAX_CUBES + 1) + num];
+    } // cubes()
+
+    /** stations()
+     * @param mask A bitmask of the cities with research stations.
+     * @return The XOR of the key of every city in the mask.
+     */
+    public static long stations(long mask) {
+        long hash = 0;
+        for(; mask != 0; mask &= mask - 1) {
+            hash ^= stations[Long.numberOfTrailingZeros(mask)];
+        }
+        return hash;
+    } // stations()
+
+    /** hand()
+     * @param player The player.
+     * @param cards A bitmask of the cards in the player's hand.
+     * @return The XOR of the key of every card in the mask.
+     */
+    public static long hand(int player, long cards) {
+        long hash = 0;
+        for(; cards != 0; cards &= cards - 1) {
+            hash ^= hands[player * CITIES + Long.numberOfTrailingZeros(cards)];
+        }
+        return hash;
+    } // hand()
+
+    /** location()
+     * @param player The player.
+     * @param city The id of the city the player is in.
+     * @return The key.
+     */
+    public static long location(int player, int city) {
+        return locations[player * CITIES + city];
+    } // location()
+
+    /** disease()
+     * @param color The color of the disease.
+     * @param state The state of the disease, such as Disease.CURED.
+     * @return The key.
+     */
+    public static long disease(int color, int state) {
+        return diseases[color * 3 + state];
+    } // disease()
+
+    /** counter()
+     * @param counter Which counter, such as OUTBREAKS.
+     * @param value The value of the counter. Values past MAX_COUNTER share a key.
+     * @return The key.
+     */
+    public static long counter(int counter, int value) {
+        return counters[counter * MAX_COUNTER + Math.max(0, Math.min(value, MAX_COUNTER - 1))];
+    } // counter()
+
+    /** deckCard()
+     * @param idx The index in the deck.
+     * @param card The id of the card at that index.
+     * @return The key.
+     */
+    public static long deckCard(int idx, int card) {
+        return deckCards[idx * MAX_DECK + card];
+    } // deckCard()
+
+    /** deckPosition()
+     * @param pos The current position of a deck, from -1 up.
+     * @return The key.
+     */
+    public static long deckPosition(int pos) {
+        return deckPositions[pos + 1];
+    } // deckPosition()
+
+    /** deckHead()
+     * @param head Where the ring of a deck starts in its array.
+     * @return The key.
+     */
+    public static long deckHead(int head) {
+        return deckHeads[head];
+    } // deckHead()
+}
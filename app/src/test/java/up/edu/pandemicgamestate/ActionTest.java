@@ -0,0 +1,95 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** ActionTest
+ * These tests check that the movement actions turn down city ids that are not on the board,
+ * without using up an action or a card.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class ActionTest {
+    private static final Board board = Board.getInstance();
+
+    private final int atlanta = board.getCityId("Atlanta");
+    private final int chicago = board.getCityId("Chicago");
+
+    /** newGame()
+     * This is a helper method which makes a two player game where the first player is dealt the
+     * Atlanta card, so that they can take a charter flight from where everyone starts.
+     * @return The game.
+     */
+    private PackedState newGame() {
+        int[] infection = new int[Deck.NUM_CITIES];
+        int[] player = new int[Deck.NUM_CITIES];
+        player[0] = this.atlanta;
+        int next = 1;
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            infection[i] = i;
+            if(i != this.atlanta) {
+                player[next++] = i;
+            }
+        }
+        return new PackedState(2, 0, infection, player);
+    } // newGame()
+
+    /** checkUnchanged()
+     * This is a helper method which checks that a turned down action left the state alone.
+     * @param state The state.
+     * @param hash The hash of the state before the action.
+     */
+    private static void checkUnchanged(PackedState state, long hash) {
+        assertEquals(hash, state.getHash());
+        assertEquals(PandemicState.NUM_ACTIONS, state.getActionsLeft());
+    } // checkUnchanged()
+
+    @Test
+    public void driveFerryTurnsDownIdsOffTheBoard() {
+        PackedState state = this.newGame();
+        long hash = state.getHash();
+
+        // 64 + chicago has the same low bits as chicago
+        assertFalse(state.driveFerry(0, 64 + this.chicago));
+        assertFalse(state.driveFerry(0, -1));
+        assertFalse(state.driveFerry(0, Deck.EPIDEMIC_CARD));
+        checkUnchanged(state, hash);
+
+        assertTrue(state.driveFerry(0, this.chicago));
+        assertEquals(this.chicago, state.getCurrCity(0));
+    } // driveFerryTurnsDownIdsOffTheBoard()
+
+    @Test
+    public void charterFlightTurnsDownIdsOffTheBoard() {
+        PackedState state = this.newGame();
+        assertTrue(state.hasCard(0, this.atlanta));
+        long hash = state.getHash();
+
+        assertFalse(state.charterFlight(0, Deck.EPIDEMIC_CARD));
+        assertFalse(state.charterFlight(0, -1));
+        assertFalse(state.charterFlight(0, 64 + this.chicago));
+
+        // flying to where the player already is would only throw a card away
+        assertFalse(state.charterFlight(0, this.atlanta));
+        checkUnchanged(state, hash);
+        assertTrue(state.hasCard(0, this.atlanta));
+
+        assertTrue(state.charterFlight(0, this.chicago));
+        assertEquals(this.chicago, state.getCurrCity(0));
+        assertFalse(state.hasCard(0, this.atlanta));
+    } // charterFlightTurnsDownIdsOffTheBoard()
+
+    @Test
+    public void shuttleFlightTurnsDownIdsOffTheBoard() {
+        PackedState state = this.newGame();
+        long hash = state.getHash();
+
+        // the only station is in Atlanta, and 64 + atlanta has the same low bits
+        assertFalse(state.hasStation(64 + this.atlanta));
+        assertFalse(state.hasStation(-64 + this.atlanta));
+        assertFalse(state.shuttleFlight(0, 64 + this.atlanta));
+        checkUnchanged(state, hash);
+        assertEquals(this.atlanta, state.getCurrCity(0));
+    } // shuttleFlightTurnsDownIdsOffTheBoard()
+}
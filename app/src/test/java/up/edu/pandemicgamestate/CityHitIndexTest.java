@@ -0,0 +1,89 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** CityHitIndexTest
+ * These tests check that the hit index finds the same city as looking at every hitbox, both for
+ * taps on the board image and for taps on a board drawn scaled and moved on the screen.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class CityHitIndexTest {
+    private static final float[] SCALES = {1f, 2.5f, 0.75f};
+    private static final float[] OFFSETS_X = {0f, -300f, 40f};
+    private static final float[] OFFSETS_Y = {0f, 120f, -70f};
+
+    /** findByHand()
+     * This is a helper method which finds the tapped city by looking at every hitbox.
+     * @param index The index.
+     * @param bx The x coordinate of the tap on the board image.
+     * @param by The y coordinate of the tap on the board image.
+     * @return The card id of the city, or NO_CARD.
+     */
+    private static int findByHand(CityHitIndex index, float bx, float by) {
+        float[] box = new float[4];
+        int best = Deck.NO_CARD;
+        float bestDist = Float.MAX_VALUE;
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            index.getHitbox(i, box);
+            if(bx >= box[0] && bx <= box[2] && by >= box[1] && by <= box[3]) {
+                float dx = bx - (box[0] + box[2]) / 2;
+                float dy = by - (box[1] + box[3]) / 2;
+                if(dx * dx + dy * dy < bestDist) {
+                    bestDist = dx * dx + dy * dy;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    } // findByHand()
+
+    @Test
+    public void tapsFindTheSameCityAsEveryHitbox() {
+        CityHitIndex index = Board.getInstance().getHitIndex();
+        GameRandom rng = new GameRandom(3);
+        for(int t = 0; t < SCALES.length; t++) {
+            for(int k = 0; k < 20000; k++) {
+                float bx = (float) (rng.nextDouble() * 1700 - 50);
+                float by = (float) (rng.nextDouble() * 1000 - 50);
+                float x = bx * SCALES[t] + OFFSETS_X[t];
+                float y = by * SCALES[t] + OFFSETS_Y[t];
+
+                int expected = findByHand(index, bx, by);
+                assertEquals(expected, index.findCity(bx, by));
+                assertEquals(expected, index.findCity(x, y, SCALES[t], OFFSETS_X[t], OFFSETS_Y[t]));
+            }
+        }
+    } // tapsFindTheSameCityAsEveryHitbox()
+
+    @Test
+    public void everyCityIsFoundAtItsCenter() {
+        CityHitIndex index = Board.getInstance().getHitIndex();
+        float[] box = new float[4];
+        float[] screen = new float[4];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            index.getHitbox(i, box);
+            index.getHitbox(i, screen, 2f, 10f, 20f);
+            assertEquals(box[0] * 2f + 10f, screen[0], 0.001f);
+            assertEquals(box[3] * 2f + 20f, screen[3], 0.001f);
+
+            float x = (screen[0] + screen[2]) / 2;
+            float y = (screen[1] + screen[3]) / 2;
+            assertEquals(i, index.findCity(x, y, 2f, 10f, 20f));
+            assertEquals(i, index.findNearest(x, y, 5f, 2f, 10f, 20f));
+        }
+    } // everyCityIsFoundAtItsCenter()
+
+    @Test
+    public void scaleMustBePositive() {
+        try {
+            Board.getInstance().getHitIndex().findCity(1f, 1f, 0f, 0f, 0f);
+            fail("A tap was looked up on a board drawn at no size");
+        }
+        catch(IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("scale"));
+        }
+    } // scaleMustBePositive()
+}
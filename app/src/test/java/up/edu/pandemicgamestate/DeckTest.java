@@ -0,0 +1,90 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** DeckTest
+ * These tests check how a deck keeps track of the known blocks that the intensify step of an
+ * epidemic puts back on top of it.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class DeckTest {
+    /** newDeck()
+     * This is a helper method which makes a deck of every city, in order.
+     * @return The deck.
+     */
+    private static Deck newDeck() {
+        int[] order = new int[Deck.NUM_CITIES];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            order[i] = i;
+        }
+        return new Deck(order);
+    } // newDeck()
+
+    /** pack()
+     * This is a helper method which packs the ends of the blocks the way the deck does.
+     * @param ends The ends, from the top of the deck down.
+     * @return The packed ends.
+     */
+    private static long pack(List<Integer> ends) {
+        long packed = 0;
+        for(int i = 0; i < ends.size(); i++) {
+            packed |= (long) ends.get(i) << (8 * i);
+        }
+        return packed;
+    } // pack()
+
+    @Test
+    public void eachIntensifyAddsABlock() {
+        Deck deck = newDeck();
+        GameRandom rng = new GameRandom(1);
+        List<Integer> ends = new ArrayList<>();
+        for(int e = 0; e < PandemicState.NUM_EPIDEMICS; e++) {
+            for(int i = 0; i < 3; i++) {
+                deck.draw();
+            }
+            int size = deck.getCurrPos() + 1;
+            while(!ends.isEmpty() && ends.get(0) <= size) {
+                ends.remove(0);
+            }
+            ends.add(0, size);
+            deck.shuffleEpidemic(rng);
+            assertEquals(pack(ends), deck.getBlocks());
+        }
+        assertTrue(ends.size() < Deck.MAX_BLOCKS);
+    } // eachIntensifyAddsABlock()
+
+    @Test
+    public void extraBlocksMergeTheDeepestTwo() {
+        Deck deck = newDeck();
+        GameRandom rng = new GameRandom(2);
+        List<Integer> ends = new ArrayList<>();
+        int deepest = 0;
+        for(int e = 0; e < 2 * Deck.MAX_BLOCKS; e++) {
+            // fewer cards are drawn each time, so every block stays above the ones before it
+            for(int i = 0; i < 2 * Deck.MAX_BLOCKS - e; i++) {
+                deck.draw();
+            }
+            int size = deck.getCurrPos() + 1;
+            while(!ends.isEmpty() && ends.get(0) <= size) {
+                ends.remove(0);
+            }
+            ends.add(0, size);
+            if(ends.size() > Deck.MAX_BLOCKS) {
+                ends.remove(Deck.MAX_BLOCKS - 1);
+            }
+            deck.shuffleEpidemic(rng);
+            assertEquals(pack(ends), deck.getBlocks());
+
+            // the deepest known block is never forgotten
+            deepest = Math.max(deepest, size);
+            assertEquals(deepest, (int) ends.get(ends.size() - 1));
+        }
+        assertEquals(Deck.MAX_BLOCKS, ends.size());
+    } // extraBlocksMergeTheDeepestTwo()
+}
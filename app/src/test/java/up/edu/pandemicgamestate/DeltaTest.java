@@ -0,0 +1,111 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/** DeltaTest
+ * These tests check that a copy of a game kept up to date with the deltas of a DeltaRecorder
+ * stays the same as the game, move after move, for both full and public deltas.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class DeltaTest {
+    private static final int NUM_GAMES = 30;
+    private static final int NUM_MOVES = 300;
+
+    /** checkGame()
+     * This is a helper method which plays a random game, applies a delta to a copy after every
+     * move, and checks that the copy matches the game each time.
+     * @param seed The seed of the game.
+     * @param full Whether to use full deltas instead of public ones.
+     */
+    private static void checkGame(int seed, boolean full) {
+        PackedState host = TestGames.playedGame(seed, seed % 20);
+        DeltaRecorder recorder = new DeltaRecorder(host, full);
+        PackedState copy = new PackedState(ByteBuffer.wrap(TestGames.encode(host, full)));
+        DeltaApplier applier = new DeltaApplier(recorder.getSequence());
+
+        GameRandom rng = new GameRandom(seed);
+        int[] moves = new int[Move.MAX_MOVES];
+        for(int i = 0; i < NUM_MOVES && host.getGameCondition() == PandemicState.PLAY; i++) {
+            int count = Move.generate(host, moves);
+            if(count == 0) {
+                break;
+            }
+            Move.apply(host, moves[rng.nextInt(count)]);
+
+            ByteBuffer delta = recorder.record(host);
+            assertTrue(delta.remaining() <= DeltaRecorder.MAX_DELTA_SIZE);
+            applier.apply(delta, copy);
+            assertFalse(delta.hasRemaining());
+            assertArrayEquals(TestGames.encode(host, full), TestGames.encode(copy, full));
+            assertTrue(copy.verifyHash());
+            if(full) {
+                assertEquals(host.getHash(), copy.getHash());
+            }
+        }
+    } // checkGame()
+
+    @Test
+    public void fullDeltasKeepACopyUpToDate() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            checkGame(g, true);
+        }
+    } // fullDeltasKeepACopyUpToDate()
+
+    @Test
+    public void publicDeltasKeepAPlayersCopyUpToDate() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            checkGame(g, false);
+        }
+    } // publicDeltasKeepAPlayersCopyUpToDate()
+
+    @Test
+    public void recordingDoesNotChangeTheGame() {
+        PackedState host = new PackedState(4, new GameRandom(3));
+        DeltaRecorder recorder = new DeltaRecorder(host);
+        TestGames.playRandomMoves(host, 10, new GameRandom(4));
+
+        byte[] before = TestGames.encode(host, true);
+        int version = host.getVersion();
+        recorder.record(host);
+        assertArrayEquals(before, TestGames.encode(host, true));
+        assertEquals(version, host.getVersion());
+    } // recordingDoesNotChangeTheGame()
+
+    @Test
+    public void nothingChangedGivesAnEmptyDelta() {
+        PackedState host = new PackedState(2, new GameRandom(5));
+        DeltaRecorder recorder = new DeltaRecorder(host);
+        PackedState copy = new PackedState(host);
+        DeltaApplier applier = new DeltaApplier();
+
+        // just the sequence number and the end record
+        ByteBuffer delta = recorder.record(host);
+        assertEquals(5, delta.remaining());
+        applier.apply(delta, copy);
+        assertArrayEquals(TestGames.encode(host, true), TestGames.encode(copy, true));
+    } // nothingChangedGivesAnEmptyDelta()
+
+    @Test
+    public void missingDeltaIsRejected() {
+        PackedState host = new PackedState(3, new GameRandom(6));
+        DeltaRecorder recorder = new DeltaRecorder(host);
+        PackedState copy = new PackedState(host);
+        DeltaApplier applier = new DeltaApplier();
+
+        TestGames.playRandomMoves(host, 1, new GameRandom(7));
+        recorder.record(host);
+        TestGames.playRandomMoves(host, 1, new GameRandom(8));
+        try {
+            applier.apply(recorder.record(host), copy);
+            fail("A delta was applied after one went missing");
+        }
+        catch(IllegalStateException e) {
+            assertEquals(0, applier.getSequence());
+        }
+    } // missingDeltaIsRejected()
+}
@@ -0,0 +1,91 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** EpidemicPlacementTest
+ * These tests check that setting up a game spreads the epidemic cards through the player deck
+ * the way the rules say: the cards left after the starting hands are split into piles whose
+ * sizes differ by at most one, and each pile gets exactly one epidemic.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class EpidemicPlacementTest {
+    private static final int NUM_GAMES = 100;
+
+    @Test
+    public void eachPileHasOneEpidemic() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.newGame(g);
+            Deck deck = state.getPlayerDeck();
+            assertEquals(Deck.NUM_CITIES + PandemicState.NUM_EPIDEMICS, deck.getDeckSize());
+
+            // the piles start under the cards dealt to the players
+            int begin = deck.getCurrPos() + 1;
+            int smallest = Integer.MAX_VALUE;
+            int biggest = 0;
+            int numPiles = 0;
+            for(long p = deck.getPiles(); p != 0; p >>>= 8) {
+                int end = (int) (p & 0xff);
+                int epidemics = 0;
+                for(int i = begin; i < end; i++) {
+                    if(deck.getCardAtIndex(i) == Deck.EPIDEMIC_CARD) {
+                        epidemics++;
+                    }
+                }
+                assertEquals(1, epidemics);
+
+                // the bigger piles are on top
+                int size = end - begin;
+                assertTrue(numPiles == 0 || size <= smallest);
+                smallest = Math.min(smallest, size);
+                biggest = Math.max(biggest, size);
+                numPiles++;
+                begin = end;
+            }
+            assertEquals(PandemicState.NUM_EPIDEMICS, numPiles);
+            assertEquals(deck.getDeckSize(), begin);
+            assertTrue(biggest - smallest <= 1);
+            assertEquals((1 << PandemicState.NUM_EPIDEMICS) - 1, deck.getPilesWithEpidemic());
+        }
+    } // eachPileHasOneEpidemic()
+
+    @Test
+    public void everyCityIsStillInTheDeck() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.newGame(g);
+            Deck deck = state.getPlayerDeck();
+            long cities = 0;
+            for(int i = 0; i < deck.getDeckSize(); i++) {
+                int card = deck.getCardAtIndex(i);
+                if(card != Deck.EPIDEMIC_CARD) {
+                    assertEquals(0, cities & 1L << card);
+                    cities |= 1L << card;
+                }
+            }
+            assertEquals(Deck.NUM_CITIES, Long.bitCount(cities));
+        }
+    } // everyCityIsStillInTheDeck()
+
+    @Test
+    public void epidemicCanBeAnywhereInItsPile() {
+        // each pile of a two player game has 8 of the 40 cities left and an epidemic
+        boolean[] seen = new boolean[9];
+        for(int g = 0; g < 400; g++) {
+            PackedState state = new PackedState(2, new GameRandom(g));
+            Deck deck = state.getPlayerDeck();
+            int begin = deck.getCurrPos() + 1;
+            int end = (int) (deck.getPiles() & 0xff);
+            assertEquals(seen.length, end - begin);
+            for(int i = begin; i < end; i++) {
+                if(deck.getCardAtIndex(i) == Deck.EPIDEMIC_CARD) {
+                    seen[i - begin] = true;
+                }
+            }
+        }
+        for(int i = 0; i < seen.length; i++) {
+            assertTrue("An epidemic was never placed at " + i, seen[i]);
+        }
+    } // epidemicCanBeAnywhereInItsPile()
+}
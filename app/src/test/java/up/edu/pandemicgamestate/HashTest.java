@@ -0,0 +1,88 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** HashTest
+ * These tests check that the hash kept up to date by every change matches the hash worked out
+ * from scratch, over random games, epidemics and outbreak chains.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class HashTest {
+    private static final int NUM_GAMES = 60;
+    private static final int NUM_MOVES = 400;
+
+    @Test
+    public void hashIsKeptUpToDateByEveryMove() {
+        int[] moves = new int[Move.MAX_MOVES];
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.newGame(g);
+            assertTrue(state.verifyHash());
+            GameRandom rng = new GameRandom(-g);
+            for(int i = 0; i < NUM_MOVES && state.getGameCondition() == PandemicState.PLAY; i++) {
+                int count = Move.generate(state, moves);
+                if(count == 0) {
+                    break;
+                }
+                Move.apply(state, moves[rng.nextInt(count)]);
+                assertTrue(state.verifyHash());
+            }
+        }
+    } // hashIsKeptUpToDateByEveryMove()
+
+    @Test
+    public void hashIsKeptUpToDateByEpidemics() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 5);
+
+            // a copy shares its arrays until it changes them, which must not upset either hash
+            PackedState copy = new PackedState(state);
+            long before = state.getHash();
+            for(int i = 0; i < 3 && copy.getGameCondition() == PandemicState.PLAY; i++) {
+                copy.epidemic();
+                assertTrue(copy.verifyHash());
+                copy.drawInfectionCards();
+                assertTrue(copy.verifyHash());
+            }
+            assertEquals(before, state.getHash());
+            assertTrue(state.verifyHash());
+        }
+    } // hashIsKeptUpToDateByEpidemics()
+
+    @Test
+    public void hashIsKeptUpToDateByOutbreaks() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 5);
+
+            // filling random cities sets off longer and longer chains until the cubes run out
+            GameRandom rng = new GameRandom(g);
+            PackedState copy = new PackedState(state);
+            while(copy.getGameCondition() == PandemicState.PLAY) {
+                copy.infectCity(rng.nextInt(Deck.NUM_CITIES), City.MAX_CUBES);
+                assertTrue(copy.verifyHash());
+            }
+        }
+    } // hashIsKeptUpToDateByOutbreaks()
+
+    @Test
+    public void drivingThereAndBackGivesTheSameHash() {
+        PackedState state = new PackedState(3, new GameRandom(1));
+        Board board = Board.getInstance();
+        int atlanta = board.getCityId("Atlanta");
+        int player = state.getCurrPlayer();
+        long before = state.getHash();
+
+        assertTrue(state.driveFerry(player, board.getCityId("Chicago")));
+        assertTrue(state.getHash() != before);
+        assertTrue(state.driveFerry(player, atlanta));
+        assertTrue(state.verifyHash());
+
+        // only the actions left are different
+        PackedState other = new PackedState(3, new GameRandom(1));
+        assertTrue(other.forgoAction(player));
+        assertTrue(other.forgoAction(player));
+        assertEquals(other.getHash(), state.getHash());
+    } // drivingThereAndBackGivesTheSameHash()
+}
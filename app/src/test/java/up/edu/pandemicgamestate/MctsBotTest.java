@@ -0,0 +1,105 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** MctsBotTest
+ * These tests check that the bot picks moves that can be made, that a search can be stopped
+ * straight away, and that the tree is kept from one search to the next only when it should be.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class MctsBotTest {
+    private static final int NUM_THREADS = 2;
+    private static final long MILLIS = 50;
+
+    /** newBot()
+     * @return A bot with a fixed seed.
+     */
+    private static MctsBot newBot() {
+        return new MctsBot(NUM_THREADS, new RandomPolicy(), MctsBot.DEFAULT_ROLLOUT_TURNS, 1);
+    } // newBot()
+
+    @Test
+    public void searchGivesAMoveThatCanBeMade() {
+        MctsBot bot = newBot();
+        for(int g = 0; g < 10; g++) {
+            PackedState state = TestGames.playedGame(g, g * 7);
+            if(state.getGameCondition() != PandemicState.PLAY) {
+                continue;
+            }
+            byte[] before = TestGames.encode(state, true);
+            int move = bot.search(state, MILLIS);
+            assertArrayEquals(before, TestGames.encode(state, true));
+            assertTrue(Move.apply(state, move));
+        }
+        assertTrue(bot.getIterations() > 0);
+        bot.shutdown();
+    } // searchGivesAMoveThatCanBeMade()
+
+    @Test
+    public void cancelStopsAnAsyncSearchStraightAway() throws Exception {
+        MctsBot bot = newBot();
+        PackedState state = TestGames.playedGame(3, 10);
+        long start = System.nanoTime();
+        Future<Integer> result = bot.searchAsync(state, 60000);
+        bot.cancel();
+        int move = result.get(5, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(Move.apply(state, move));
+        bot.shutdown();
+    } // cancelStopsAnAsyncSearchStraightAway()
+
+    @Test
+    public void advanceKeepsTheTreeWithinATurn() {
+        MctsBot bot = newBot();
+        PackedState state = TestGames.newGame(4);
+        bot.search(state, MILLIS);
+        int move = bot.getBestMove();
+        assertTrue(Move.getType(move) != PandemicState.END_TURN);
+        assertTrue(Move.apply(state, move));
+
+        // the games played under the move are kept, and the next search adds to them
+        bot.advance(move, state);
+        int kept = bot.getRootVisits();
+        assertTrue(kept > 0);
+        int iterations = bot.getIterations();
+        bot.search(state, MILLIS);
+        assertEquals(kept + bot.getIterations() - iterations, bot.getRootVisits());
+        bot.shutdown();
+    } // advanceKeepsTheTreeWithinATurn()
+
+    @Test
+    public void advanceDropsTheTreeAtTheEndOfATurn() {
+        MctsBot bot = newBot();
+        PackedState state = TestGames.newGame(5);
+        for(int i = 0; i < PandemicState.NUM_ACTIONS; i++) {
+            assertTrue(state.forgoAction(state.getCurrPlayer()));
+        }
+        int move = bot.search(state, MILLIS);
+        assertEquals(PandemicState.END_TURN, Move.getType(move));
+        assertTrue(Move.apply(state, move));
+
+        // the cards drawn may not be the ones the tree was searched with
+        bot.advance(move, state);
+        assertEquals(0, bot.getRootVisits());
+        bot.shutdown();
+    } // advanceDropsTheTreeAtTheEndOfATurn()
+
+    @Test
+    public void anotherStateGetsANewTree() {
+        MctsBot bot = newBot();
+        bot.search(TestGames.newGame(6), MILLIS);
+        assertTrue(bot.getRootVisits() > 0);
+
+        // the tree is not advanced to the new state, so it is started again
+        int iterations = bot.getIterations();
+        bot.search(TestGames.newGame(7), MILLIS);
+        assertEquals(bot.getIterations() - iterations, bot.getRootVisits());
+        bot.shutdown();
+    } // anotherStateGetsANewTree()
+}
@@ -0,0 +1,189 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** OutbreakTest
+ * These tests check that infecting a city resolves outbreaks the way the rules say: a chain
+ * spreads from city to city, each city breaks out at most once in a chain, eradicated diseases
+ * are never placed, and the game is lost as soon as a disease runs out of cubes.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class OutbreakTest {
+    private static final Board board = Board.getInstance();
+    private static final BoardGraph graph = board.getGraph();
+
+    private final int atlanta = board.getCityId("Atlanta");
+    private final int washington = board.getCityId("Washington");
+    private final int miami = board.getCityId("Miami");
+
+    /** newGame()
+     * This is a helper method which makes a two player game where the first player is dealt four
+     * blue cards and draws a fifth, so that they can cure the blue disease from Atlanta.
+     * @return The game.
+     */
+    private static PackedState newGame() {
+        int[] infection = new int[Deck.NUM_CITIES];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            infection[i] = i;
+        }
+
+        // the blue cities are 0 to 11 and the yellow cities 12 to 23
+        int[] player = new int[Deck.NUM_CITIES];
+        int next = 0;
+        for(int i = 0; i < 4; i++) {
+            player[next++] = i;
+        }
+        for(int i = 12; i < 16; i++) {
+            player[next++] = i;
+        }
+        for(int i = 4; i < Deck.NUM_CITIES; i++) {
+            if(i < 12 || i >= 16) {
+                player[next++] = i;
+            }
+        }
+        return new PackedState(2, 0, infection, player);
+    } // newGame()
+
+    /** checkCubes()
+     * This is a helper method which checks that the cubes on the board and the cubes left add up
+     * for every disease, and that the hash is still right.
+     * @param state The state to check.
+     */
+    private static void checkCubes(PackedState state) {
+        for(int color = 0; color < Disease.NUM_DISEASES; color++) {
+            int onBoard = 0;
+            for(int i = 0; i < Deck.NUM_CITIES; i++) {
+                if(board.getColor(i) == color) {
+                    onBoard += state.getCubes(i);
+                }
+            }
+            assertEquals(onBoard, state.getCubesOnBoard(color));
+            assertEquals(Disease.MAX_CUBES, onBoard + state.getCubesLeft(color));
+        }
+        assertTrue(state.verifyHash());
+    } // checkCubes()
+
+    @Test
+    public void outbreakSpreadsToConnectedCities() {
+        PackedState state = newGame();
+        state.infectCity(this.atlanta, City.MAX_CUBES);
+        assertEquals(0, state.getLastOutbreaks());
+
+        assertEquals(1, state.infectCity(this.atlanta, 1));
+        assertEquals(1L << this.atlanta, state.getLastOutbreaks());
+        assertEquals(City.MAX_CUBES, state.getCubes(this.atlanta));
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            if(i != this.atlanta) {
+                assertEquals(graph.isAdjacent(this.atlanta, i) ? 1 : 0, state.getCubes(i));
+            }
+        }
+        assertEquals(graph.getNeighborMask(this.atlanta), state.getLastInfected());
+        checkCubes(state);
+    } // outbreakSpreadsToConnectedCities()
+
+    @Test
+    public void outbreakChainsIntoFullCities() {
+        PackedState state = newGame();
+        state.infectCity(this.atlanta, City.MAX_CUBES);
+        state.infectCity(this.washington, City.MAX_CUBES);
+
+        long brokeOut = 1L << this.atlanta | 1L << this.washington;
+        assertEquals(2, state.infectCity(this.atlanta, 1));
+        assertEquals(brokeOut, state.getLastOutbreaks());
+
+        // every other city gets a cube from each connected city that broke out
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            int expected = Long.bitCount(graph.getNeighborMask(i) & brokeOut);
+            if((brokeOut & 1L << i) != 0) {
+                expected = City.MAX_CUBES;
+            }
+            assertEquals(expected, state.getCubes(i));
+        }
+        checkCubes(state);
+    } // outbreakChainsIntoFullCities()
+
+    @Test
+    public void eachCityBreaksOutOncePerChain() {
+        // Atlanta, Washington and Miami are all connected to each other
+        PackedState state = newGame();
+        assertTrue(graph.isAdjacent(this.atlanta, this.washington));
+        assertTrue(graph.isAdjacent(this.washington, this.miami));
+        assertTrue(graph.isAdjacent(this.miami, this.atlanta));
+        state.infectCity(this.atlanta, City.MAX_CUBES);
+        state.infectCity(this.washington, City.MAX_CUBES);
+        state.infectCity(this.miami, City.MAX_CUBES);
+
+        long brokeOut = 1L << this.atlanta | 1L << this.washington | 1L << this.miami;
+        assertEquals(3, state.infectCity(this.atlanta, 1));
+        assertEquals(brokeOut, state.getLastOutbreaks());
+        for(long b = brokeOut; b != 0; b &= b - 1) {
+            assertEquals(City.MAX_CUBES, state.getCubes(Long.numberOfTrailingZeros(b)));
+        }
+        checkCubes(state);
+    } // eachCityBreaksOutOncePerChain()
+
+    @Test
+    public void eradicatedDiseaseIsNotPlaced() {
+        PackedState state = newGame();
+        assertTrue(state.drawCard());
+        assertTrue(state.cure(0));
+        assertEquals(Disease.ERADICATED, state.getDiseaseState(Disease.BLUE));
+
+        // a blue city gets no cubes and never breaks out
+        assertEquals(0, state.infectCity(this.atlanta, City.MAX_CUBES + 1));
+        assertEquals(0, state.getCubes(this.atlanta));
+
+        // a yellow chain passes over the blue cities next to it
+        state.infectCity(this.miami, City.MAX_CUBES);
+        assertEquals(1, state.infectCity(this.miami, 1));
+        long neighbors = graph.getNeighborMask(this.miami);
+        for(long n = neighbors; n != 0; n &= n - 1) {
+            int city = Long.numberOfTrailingZeros(n);
+            int expected = board.getColor(city) == Disease.BLUE ? 0 : 1;
+            assertEquals(expected, state.getCubes(city));
+        }
+        assertEquals(neighbors & ~board.getColorMask(Disease.BLUE), state.getLastInfected());
+        assertEquals(0, state.getCubesOnBoard(Disease.BLUE));
+        checkCubes(state);
+    } // eradicatedDiseaseIsNotPlaced()
+
+    @Test
+    public void runningOutOfCubesLosesTheGame() {
+        PackedState state = newGame();
+
+        // eight yellow cities with three cubes each use up all 24 yellow cubes
+        for(int i = 12; i < 20; i++) {
+            state.infectCity(i, City.MAX_CUBES);
+        }
+        assertEquals(0, state.getCubesLeft(Disease.YELLOW));
+        assertEquals(PandemicState.PLAY, state.getGameCondition());
+
+        state.infectCity(20, 1);
+        assertEquals(PandemicState.LOSE, state.getGameCondition());
+        assertTrue(state.getCubesLeft(Disease.YELLOW) < 0);
+    } // runningOutOfCubesLosesTheGame()
+
+    @Test
+    public void outbreakThatRunsOutOfCubesLosesTheGame() {
+        PackedState state = newGame();
+
+        // Miami and seven yellow cities that are not next to it use up all of the yellow cubes
+        int filled = 0;
+        for(int i = 12; i < 24 && filled < 7; i++) {
+            if(i != this.miami && !graph.isAdjacent(this.miami, i)) {
+                state.infectCity(i, City.MAX_CUBES);
+                filled++;
+            }
+        }
+        state.infectCity(this.miami, City.MAX_CUBES);
+        assertEquals(0, state.getCubesLeft(Disease.YELLOW));
+        assertEquals(PandemicState.PLAY, state.getGameCondition());
+
+        // Miami breaks out, and there are no cubes left for its yellow neighbors
+        assertEquals(1, state.infectCity(this.miami, 1));
+        assertEquals(PandemicState.LOSE, state.getGameCondition());
+    } // outbreakThatRunsOutOfCubesLosesTheGame()
+}
@@ -0,0 +1,91 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/** SimulatorTest
+ * These tests check that a batch of games gives the same totals on any number of threads, that
+ * every game is played to the end, and that games continued from one state draw different cards.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class SimulatorTest {
+    private static final int NUM_GAMES = 300;
+    private static final int[] NUM_THREADS = {1, 3, 8};
+
+    /** FirstDealPolicy
+     * This is a random policy which remembers the order of the player deck the first time it is
+     * asked to play, which is right at the start of the first game it plays.
+     */
+    private static class FirstDealPolicy extends RandomPolicy {
+        private String deal;
+
+        /** playActions()
+         * This method remembers the deck if it has not yet, then plays random actions.
+         * @param state The state of the game.
+         * @param rng A random number generator.
+         */
+        @Override
+        public void playActions(PackedState state, GameRandom rng) {
+            if(this.deal == null) {
+                Deck deck = state.getPlayerDeck();
+                StringBuilder str = new StringBuilder();
+                for(int i = 0; i < deck.getDeckSize(); i++) {
+                    str.append(deck.getCardAtIndex(i)).append(' ');
+                }
+                this.deal = str.toString();
+            }
+            super.playActions(state, rng);
+        } // playActions()
+    } // FirstDealPolicy
+
+    @Test
+    public void totalsDoNotDependOnTheNumberOfThreads() {
+        PackedState start = TestGames.playedGame(5, 30);
+        String fresh = null;
+        String continued = null;
+        for(int t = 0; t < NUM_THREADS.length; t++) {
+            Simulator sim = new Simulator(new RandomPolicy(), NUM_THREADS[t]);
+            String a = sim.run(3, NUM_GAMES, 7).toString();
+            String b = sim.run(start, NUM_GAMES, 7).toString();
+            sim.shutdown();
+
+            if(t == 0) {
+                fresh = a;
+                continued = b;
+            }
+            assertEquals(fresh, a);
+            assertEquals(continued, b);
+        }
+    } // totalsDoNotDependOnTheNumberOfThreads()
+
+    @Test
+    public void everyGameIsPlayedToTheEnd() {
+        // being given an eighth card in the middle of a turn used to stop these games early
+        Simulator sim = new Simulator(new RandomPolicy());
+        SimulationResult result = sim.run(3, 3000, 11);
+        sim.shutdown();
+        assertEquals(3000, result.getGames());
+        assertEquals(0, result.getUnfinished());
+    } // everyGameIsPlayedToTheEnd()
+
+    @Test
+    public void gamesFromOneStateDrawDifferentCards() {
+        PackedState start = TestGames.playedGame(2, 20);
+        byte[] before = TestGames.encode(start, true);
+        Set<String> deals = new HashSet<>();
+        for(int s = 0; s < 20; s++) {
+            FirstDealPolicy policy = new FirstDealPolicy();
+            Simulator sim = new Simulator(policy, 1);
+            sim.run(start, 1, s);
+            sim.shutdown();
+            deals.add(policy.deal);
+        }
+        assertEquals(20, deals.size());
+        assertArrayEquals(before, TestGames.encode(start, true));
+    } // gamesFromOneStateDrawDifferentCards()
+}
@@ -0,0 +1,132 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/** SnapshotTest
+ * These tests check that a snapshot read back with decode() gives the same state, in both the
+ * full form used for saving and the public form sent to the players, and that the public form
+ * does not give away anything the players can not see.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class SnapshotTest {
+    private static final int NUM_GAMES = 60;
+
+    /** sortedCards()
+     * @param deck A deck.
+     * @return The card ids of the cards that have not been drawn, in order of their ids.
+     */
+    private static int[] sortedCards(Deck deck) {
+        int[] cards = new int[deck.getCardsLeft()];
+        for(int i = 0; i < cards.length; i++) {
+            cards[i] = deck.getCardAtIndex(deck.getCurrPos() + 1 + i);
+        }
+        Arrays.sort(cards);
+        return cards;
+    } // sortedCards()
+
+    @Test
+    public void fullSnapshotRoundTrips() {
+        PackedState copy = null;
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 7 % 300);
+
+            byte[] bytes = TestGames.encode(state, true);
+            assertTrue(bytes.length <= PackedState.MAX_SNAPSHOT_SIZE);
+
+            // decoding into a state used for a different number of players still works
+            if(copy == null) {
+                copy = new PackedState(ByteBuffer.wrap(bytes));
+            }
+            else {
+                copy.decode(ByteBuffer.wrap(bytes));
+            }
+            assertArrayEquals(bytes, TestGames.encode(copy, true));
+            assertEquals(state.getHash(), copy.getHash());
+            assertTrue(copy.verifyHash());
+            int player = state.getCurrPlayer();
+            assertEquals(state.getLegalActions(player), copy.getLegalActions(player));
+
+            // the order of the decks and the seed came back too, so both play out the same way
+            TestGames.playRandomMoves(state, 40, new GameRandom(g));
+            TestGames.playRandomMoves(copy, 40, new GameRandom(g));
+            assertArrayEquals(TestGames.encode(state, true), TestGames.encode(copy, true));
+        }
+    } // fullSnapshotRoundTrips()
+
+    @Test
+    public void publicSnapshotRoundTrips() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 7 % 300);
+
+            byte[] bytes = TestGames.encode(state, false);
+            assertTrue(bytes.length <= PackedState.MAX_SNAPSHOT_SIZE);
+            PackedState copy = new PackedState(ByteBuffer.wrap(bytes));
+            assertArrayEquals(bytes, TestGames.encode(copy, false));
+            assertTrue(copy.verifyHash());
+
+            // everything but the order of the unseen cards is the same
+            int player = state.getCurrPlayer();
+            assertEquals(state.getLegalActions(player), copy.getLegalActions(player));
+            Deck[] decks = {state.getInfectionDeck(), state.getPlayerDeck()};
+            Deck[] copies = {copy.getInfectionDeck(), copy.getPlayerDeck()};
+            for(int d = 0; d < 2; d++) {
+                assertEquals(decks[d].getCurrPos(), copies[d].getCurrPos());
+                assertEquals(decks[d].getBlocks(), copies[d].getBlocks());
+                assertEquals(decks[d].getPiles(), copies[d].getPiles());
+                assertEquals(decks[d].getPilesWithEpidemic(), copies[d].getPilesWithEpidemic());
+                assertArrayEquals(sortedCards(decks[d]), sortedCards(copies[d]));
+                for(int i = 0; i <= decks[d].getCurrPos(); i++) {
+                    assertEquals(decks[d].getCardAtIndex(i), copies[d].getCardAtIndex(i));
+                }
+            }
+        }
+    } // publicSnapshotRoundTrips()
+
+    @Test
+    public void publicSnapshotHidesUnseenCards() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 7 % 300);
+
+            // a copy with the unseen cards dealt again and a new seed looks the same to the players
+            PackedState other = new PackedState(state);
+            Determinizer.sample(state, new GameRandom(g + 1), other);
+            assertArrayEquals(TestGames.encode(state, false), TestGames.encode(other, false));
+            assertFalse(Arrays.equals(TestGames.encode(state, true),
+                    TestGames.encode(other, true)));
+        }
+    } // publicSnapshotHidesUnseenCards()
+
+    @Test
+    public void otherVersionsAreRejected() {
+        PackedState state = new PackedState(4, new GameRandom(1));
+        byte[] bytes = TestGames.encode(state, true);
+        bytes[2] = PackedState.SNAPSHOT_VERSION + 1;
+        try {
+            new PackedState(ByteBuffer.wrap(bytes));
+            fail("A snapshot of another version was read");
+        }
+        catch(IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    } // otherVersionsAreRejected()
+
+    @Test
+    public void byteOrderOfTheBufferIsKept() {
+        PackedState state = new PackedState(3, new GameRandom(2));
+        ByteBuffer out = ByteBuffer.allocateDirect(PackedState.MAX_SNAPSHOT_SIZE);
+        out.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        state.encode(out);
+        assertEquals(java.nio.ByteOrder.LITTLE_ENDIAN, out.order());
+
+        out.flip();
+        PackedState copy = new PackedState(out);
+        assertEquals(java.nio.ByteOrder.LITTLE_ENDIAN, out.order());
+        assertArrayEquals(TestGames.encode(state, true), TestGames.encode(copy, true));
+    } // byteOrderOfTheBufferIsKept()
+}
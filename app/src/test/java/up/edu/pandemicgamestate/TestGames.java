@@ -0,0 +1,71 @@
+package up.edu.pandemicgamestate;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** TestGames
+ * This class builds the games the tests play on. Game number g has 2 to 4 players depending on g
+ * and is shuffled with the seed g, and the random moves played on it use the seed -g, so every
+ * test that asks for game g gets the same game.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+final class TestGames {
+    /** TestGames()
+     * This class only has static helpers, so it is never created.
+     */
+    private TestGames() {
+    } // TestGames()
+
+    /** newGame()
+     * @param g The number of the game.
+     * @return Game number g, before anyone has moved.
+     */
+    static PackedState newGame(int g) {
+        return new PackedState(2 + g % 3, new GameRandom(g));
+    } // newGame()
+
+    /** playedGame()
+     * @param g The number of the game.
+     * @param numMoves The most random moves to play, fewer if the game ends first.
+     * @return Game number g, after the random moves.
+     */
+    static PackedState playedGame(int g, int numMoves) {
+        PackedState state = newGame(g);
+        playRandomMoves(state, numMoves, new GameRandom(-g));
+        return state;
+    } // playedGame()
+
+    /** playRandomMoves()
+     * This method plays random legal moves.
+     * @param state The state to play on.
+     * @param num The most moves to play, fewer if the game ends first.
+     * @param rng A random number generator.
+     */
+    static void playRandomMoves(PackedState state, int num, GameRandom rng) {
+        int[] moves = new int[Move.MAX_MOVES];
+        for(int i = 0; i < num && state.getGameCondition() == PandemicState.PLAY; i++) {
+            int count = Move.generate(state, moves);
+            if(count == 0) {
+                return;
+            }
+            Move.apply(state, moves[rng.nextInt(count)]);
+        }
+    } // playRandomMoves()
+
+    /** encode()
+     * @param state A state.
+     * @param full Whether to write the full snapshot instead of the public one.
+     * @return The snapshot.
+     */
+    static byte[] encode(PackedState state, boolean full) {
+        ByteBuffer out = ByteBuffer.allocate(PackedState.MAX_SNAPSHOT_SIZE);
+        if(full) {
+            state.encode(out);
+        }
+        else {
+            state.encodePublic(out);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    } // encode()
+}
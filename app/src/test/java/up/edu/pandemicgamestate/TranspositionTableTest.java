@@ -0,0 +1,68 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** TranspositionTableTest
+ * These tests check the size of a transposition table, that what is stored can be found again,
+ * and that the key of a state leaves out the order of the cards nobody has seen.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class TranspositionTableTest {
+    @Test
+    public void bucketsAreRoundedUpToAPowerOfTwo() {
+        // two slots to a bucket
+        assertEquals(2, new TranspositionTable(0).getCapacity());
+        assertEquals(2, new TranspositionTable(1).getCapacity());
+        assertEquals(4, new TranspositionTable(2).getCapacity());
+        assertEquals(8, new TranspositionTable(3).getCapacity());
+        assertEquals(8, new TranspositionTable(4).getCapacity());
+        assertEquals(2048, new TranspositionTable(1000).getCapacity());
+        assertEquals(2048, new TranspositionTable(1024).getCapacity());
+    } // bucketsAreRoundedUpToAPowerOfTwo()
+
+    @Test
+    public void storedEntriesAreFound() {
+        TranspositionTable table = new TranspositionTable(1 << 10, true);
+        table.store(12345L, -7, 42, 9);
+        long entry = table.probe(12345L);
+        assertTrue(entry != TranspositionTable.MISS);
+        assertEquals(-7, TranspositionTable.getValue(entry));
+        assertEquals(42, TranspositionTable.getMove(entry));
+        assertEquals(9, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.MISS, table.probe(54321L));
+        assertEquals(2, table.getProbes());
+        assertEquals(1, table.getHits());
+
+        // a table that is not counting leaves its counters alone
+        TranspositionTable quiet = new TranspositionTable(1 << 10);
+        quiet.store(12345L, 1, 0, 0);
+        assertTrue(quiet.probe(12345L) != TranspositionTable.MISS);
+        assertEquals(0, quiet.getProbes());
+        assertEquals(0, quiet.getStores());
+    } // storedEntriesAreFound()
+
+    @Test
+    public void keyLeavesOutTheUnseenCards() {
+        for(int g = 0; g < 20; g++) {
+            PackedState state = TestGames.playedGame(g, g * 5);
+
+            // every deal of the unseen cards is the same position to a bot
+            PackedState other = new PackedState(state);
+            Determinizer.sample(state, new GameRandom(g + 1), other);
+            assertEquals(TranspositionTable.key(state), TranspositionTable.key(other));
+
+            // but a move is not
+            int[] moves = new int[Move.MAX_MOVES];
+            int count = Move.generate(state, moves);
+            for(int i = 0; i < count; i++) {
+                other.copyFrom(state);
+                if(Move.apply(other, moves[i]) && other.getHash() != state.getHash()) {
+                    assertTrue(TranspositionTable.key(state) != TranspositionTable.key(other));
+                }
+            }
+        }
+    } // keyLeavesOutTheUnseenCards()
+}
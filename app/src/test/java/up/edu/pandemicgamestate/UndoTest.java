@@ -0,0 +1,163 @@
+package up.edu.pandemicgamestate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** UndoTest
+ * These tests check that undo() brings back exactly the state that was marked with pushUndo(),
+ * down to the order of the decks, the hash and the legal actions, including after epidemics and
+ * for hands holding cards whose ids are in the high half of the hand.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class UndoTest {
+    private static final int NUM_GAMES = 40;
+    private static final int NUM_MOVES = 200;
+
+    /** Mark
+     * This is everything about a state that undo() has to bring back.
+     */
+    private static class Mark {
+        private final byte[] snapshot;
+        private final long hash;
+        private final int[] legal;
+
+        /** Mark()
+         * @param state The state to remember.
+         */
+        private Mark(PackedState state) {
+            // checking the legal actions brings the need to discard flag up to date, so it goes
+            // before the snapshot
+            this.legal = new int[state.getNumPlayers()];
+            for(int i = 0; i < this.legal.length; i++) {
+                this.legal[i] = state.getLegalActions(i);
+            }
+            this.snapshot = TestGames.encode(state, true);
+            this.hash = state.getHash();
+        } // Mark()
+
+        /** check()
+         * This method checks that a state is the same as the one that was remembered.
+         * @param state The state.
+         */
+        private void check(PackedState state) {
+            assertArrayEquals(this.snapshot, TestGames.encode(state, true));
+            assertEquals(this.hash, state.getHash());
+            assertTrue(state.verifyHash());
+            for(int i = 0; i < this.legal.length; i++) {
+                assertEquals(this.legal[i], state.getLegalActions(i));
+            }
+        } // check()
+    } // Mark
+
+    @Test
+    public void undoTakesBackEveryMove() {
+        int[] moves = new int[Move.MAX_MOVES];
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.newGame(g);
+            GameRandom rng = new GameRandom(-g);
+            for(int i = 0; i < NUM_MOVES && state.getGameCondition() == PandemicState.PLAY; i++) {
+                int count = Move.generate(state, moves);
+                if(count == 0) {
+                    break;
+                }
+                int move = moves[rng.nextInt(count)];
+
+                Mark mark = new Mark(state);
+                state.pushUndo();
+                Move.apply(state, move);
+                assertTrue(state.undo());
+                mark.check(state);
+                assertEquals(0, state.getUndoDepth());
+
+                Move.apply(state, move);
+            }
+        }
+    } // undoTakesBackEveryMove()
+
+    @Test
+    public void nestedMarksAreTakenBackInOrder() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 3);
+            GameRandom rng = new GameRandom(g + 2);
+
+            Mark[] marks = new Mark[8];
+            for(int d = 0; d < marks.length; d++) {
+                marks[d] = new Mark(state);
+                state.pushUndo();
+                TestGames.playRandomMoves(state, 4, rng);
+            }
+            for(int d = marks.length - 1; d >= 0; d--) {
+                assertTrue(state.undo());
+                marks[d].check(state);
+            }
+            assertFalse(state.undo());
+        }
+    } // nestedMarksAreTakenBackInOrder()
+
+    @Test
+    public void undoTakesBackAnEpidemic() {
+        for(int g = 0; g < NUM_GAMES; g++) {
+            PackedState state = TestGames.playedGame(g, g * 5);
+            if(state.getGameCondition() != PandemicState.PLAY) {
+                continue;
+            }
+
+            // the epidemic draws from the bottom, shuffles the discard pile onto the top and
+            // may set off outbreaks, and all of it has to come back
+            Mark mark = new Mark(state);
+            state.pushUndo();
+            state.epidemic();
+            state.drawInfectionCards();
+            assertTrue(state.undo());
+            mark.check(state);
+        }
+    } // undoTakesBackAnEpidemic()
+
+    @Test
+    public void undoTakesBackHighCards() {
+        // the first player is dealt 44 to 47, the second 40 to 43, and the next draws are 32 up
+        int[] infection = new int[Deck.NUM_CITIES];
+        int[] player = new int[Deck.NUM_CITIES];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            infection[i] = i;
+            player[i] = i < 8 ? Deck.NUM_CITIES - 4 - 4 * (i / 4) + i % 4 : i - 8;
+        }
+        for(int i = 8; i < 16; i++) {
+            player[i] = 32 + i - 8;
+        }
+        PackedState state = new PackedState(2, 0, infection, player);
+        assertEquals(0xfL << 44, state.getHand(0));
+        assertEquals(0xfL << 40, state.getHand(1));
+
+        // the card drawn is in the high half of the hand, with the cards already there
+        Mark mark = new Mark(state);
+        state.pushUndo();
+        assertTrue(state.drawCard());
+        assertEquals(0xfL << 44 | 1L << 32, state.getHand(0));
+        assertTrue(state.undo());
+        mark.check(state);
+
+        // discarding one of the high cards
+        assertTrue(state.drawCard());
+        assertTrue(state.drawCard());
+        assertTrue(state.drawCard());
+        assertTrue(state.drawCard());
+        assertTrue(state.needToDiscard());
+        mark = new Mark(state);
+        state.pushUndo();
+        assertTrue(state.discard(0, 47));
+        assertEquals(0, state.getHand(0) & 1L << 47);
+        assertTrue(state.undo());
+        mark.check(state);
+
+        // a whole turn, where the high cards move between hands and more are drawn
+        assertTrue(state.discard(0, 32));
+        mark = new Mark(state);
+        state.pushUndo();
+        TestGames.playRandomMoves(state, 40, new GameRandom(9));
+        assertTrue(state.undo());
+        mark.check(state);
+    } // undoTakesBackHighCards()
+}
@@ -0,0 +1,215 @@
+package up.edu.pandemicgamestate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import up.edu.pandemicgamestate.Board;
+import up.edu.pandemicgamestate.Deck;
+import up.edu.pandemicgamestate.PackedState;
+import up.edu.pandemicgamestate.PandemicState;
+
+/** ActionBenchmark
+ * These are the benchmarks for the single actions of the game state. Each action runs on a
+ * position made for it where the action is legal, so the whole action is timed and not just the
+ * check that turns it down: the current player starts in Atlanta holding seven blue cards,
+ * including Atlanta and Washington, and each position adds what its action needs, such as cubes
+ * to treat or a second research station to shuttle to. setUp() checks that every action works
+ * on its position before anything is timed.
+ *
+ * An action changes the state, so act() marks the state with pushUndo() before the action and
+ * takes it back with undo() after, the way a search plays and takes back moves. Every action is
+ * far shorter than a microsecond, which is too short for a per-invocation setup to time well. The
+ * baseline benchmark times pushUndo() and undo() with nothing in between, and subtracting it from
+ * act() gives the cost of the action and of remembering what it changed.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+    private static final String[] ACTIONS = {"driveFerry", "directFlight", "charterFlight",
+            "shuttleFlight", "treat", "buildStation", "share", "cure", "discard", "forgoAction",
+            "endTurn", "epidemic"};
+
+    // the seven blue cards of the current player, the first of which they are dealt
+    private static final String[] HAND = {"Atlanta", "Washington", "Chicago", "San Francisco",
+            "Montreal", "New York", "London"};
+
+    @Param({"2", "3", "4"})
+    public int numPlayers;
+
+    @Param({"driveFerry", "directFlight", "charterFlight", "shuttleFlight", "treat",
+            "buildStation", "share", "cure", "discard", "forgoAction", "endTurn", "epidemic"})
+    public String action;
+
+    private PackedState position;
+    private PackedState work;
+    private int code;
+
+    // the cities the actions go to
+    private int atlanta;
+    private int washington;
+    private int chicago;
+    private int tokyo;
+    private int london;
+
+    /** setUp()
+     * This method makes the position for the action and checks that the action is legal on it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Board board = Board.getInstance();
+        this.atlanta = board.getCityId("Atlanta");
+        this.washington = board.getCityId("Washington");
+        this.chicago = board.getCityId("Chicago");
+        this.tokyo = board.getCityId("Tokyo");
+        this.london = board.getCityId("London");
+        this.code = Arrays.asList(ACTIONS).indexOf(this.action);
+
+        this.position = this.makeStart();
+        switch(this.action) {
+            case "shuttleFlight":
+                // a second station in Washington to fly back to Atlanta from
+                this.position.driveFerry(0, this.washington);
+                this.position.buildStation(0);
+                break;
+            case "treat":
+                this.position.infectCity(this.atlanta, 2);
+                break;
+            case "buildStation":
+                this.position.driveFerry(0, this.washington);
+                break;
+            case "discard":
+                // an eighth card puts the player over the hand limit
+                this.position.drawCard();
+                break;
+            case "endTurn":
+                // the actions have to be used up, and the two cards drawn have to fit in the hand
+                for(int i = 0; i < PandemicState.NUM_ACTIONS; i++) {
+                    this.position.forgoAction(0);
+                }
+                this.position.discard(0, this.london);
+                this.position.discard(0, this.chicago);
+                break;
+            case "epidemic":
+                // a few infection cards in the discard pile for the epidemic to shuffle
+                this.position.drawInfectionCards();
+                break;
+            default:
+                break;
+        }
+
+        this.work = new PackedState(this.position);
+        long hash = this.work.getHash();
+        if(!this.act()) {
+            throw new IllegalStateException(this.action + " is not legal on its position");
+        }
+        if(this.work.getHash() != hash || this.work.getUndoDepth() != 0) {
+            throw new IllegalStateException(this.action + " was not taken back by undo()");
+        }
+    } // setUp()
+
+    /** makeStart()
+     * This is a helper method which makes the position every action starts from: a game where
+     * player 0 goes first and has drawn up to the seven cards in HAND, and the other players hold
+     * yellow cards. Nothing is shuffled, so the position is the same every time.
+     * @return The position.
+     */
+    private PackedState makeStart() {
+        Board board = Board.getInstance();
+        int deal = this.numPlayers == 2 ? 4 : this.numPlayers == 3 ? 3 : 2;
+        int[] hand = new int[HAND.length];
+        for(int i = 0; i < HAND.length; i++) {
+            hand[i] = board.getCityId(HAND[i]);
+        }
+
+        // player 0's first cards, then the other players' cards, then player 0's draws
+        int[] order = new int[Deck.NUM_CITIES];
+        boolean[] used = new boolean[Deck.NUM_CITIES];
+        int next = 0;
+        for(int i = 0; i < deal; i++) {
+            order[next++] = hand[i];
+            used[hand[i]] = true;
+        }
+        int other = board.getCityId("Los Angeles");
+        for(int i = deal; i < deal * this.numPlayers; i++) {
+            order[next++] = other;
+            used[other++] = true;
+        }
+        for(int i = deal; i < hand.length; i++) {
+            order[next++] = hand[i];
+            used[hand[i]] = true;
+        }
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            if(!used[i]) {
+                order[next++] = i;
+            }
+        }
+
+        int[] infection = new int[Deck.NUM_CITIES];
+        for(int i = 0; i < Deck.NUM_CITIES; i++) {
+            infection[i] = Deck.NUM_CITIES - 1 - i;
+        }
+
+        PackedState start = new PackedState(this.numPlayers, 0, infection, order);
+        for(int i = deal; i < hand.length; i++) {
+            start.drawCard();
+        }
+        return start;
+    } // makeStart()
+
+    @Benchmark
+    public boolean act() {
+        this.work.pushUndo();
+        boolean done = this.apply();
+        this.work.undo();
+        return done;
+    } // act()
+
+    @Benchmark
+    public int baseline() {
+        this.work.pushUndo();
+        this.work.undo();
+        return this.work.getUndoDepth();
+    } // baseline()
+
+    /** apply()
+     * This is a helper method which performs the action on the working state.
+     * @return Whether the action was valid.
+     */
+    private boolean apply() {
+        switch(this.code) {
+            case 0: return this.work.driveFerry(0, this.washington);
+            case 1: return this.work.directFlight(0, this.chicago);
+            case 2: return this.work.charterFlight(0, this.tokyo);
+            case 3: return this.work.shuttleFlight(0, this.atlanta);
+            case 4: return this.work.treat(0);
+            case 5: return this.work.buildStation(0);
+            case 6: return this.work.share(0);
+            case 7: return this.work.cure(0);
+            case 8: return this.work.discard(0, this.london);
+            case 9: return this.work.forgoAction(0);
+            case 10: return this.work.endTurn(0);
+            default:
+                this.work.epidemic();
+                return this.work.getGameCondition() == PandemicState.PLAY;
+        }
+    } // apply()
+}
@@ -0,0 +1,31 @@
+package up.edu.pandemicgamestate.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** BenchmarkMain
+ * This runs the game state benchmarks with the gc profiler, which adds the allocation rate of each
+ * benchmark to its throughput and average time. Any arguments are used to pick which benchmarks
+ * run, for example "rollout" or "GameStateBenchmark.copy". The benchmark task of the app's build
+ * runs it, for example "./gradlew :app:benchmark -Pbenchmarks=rollout".
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if(args.length == 0) {
+            options.include(GameStateBenchmark.class.getSimpleName());
+            options.include(ActionBenchmark.class.getSimpleName());
+        }
+        for(int i = 0; i < args.length; i++) {
+            options.include(args[i]);
+        }
+
+        Options opt = options.addProfiler(GCProfiler.class).build();
+        new Runner(opt).run();
+    } // main()
+}
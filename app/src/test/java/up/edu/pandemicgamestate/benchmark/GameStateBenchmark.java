@@ -0,0 +1,120 @@
+package up.edu.pandemicgamestate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import up.edu.pandemicgamestate.GameRandom;
+import up.edu.pandemicgamestate.PackedState;
+import up.edu.pandemicgamestate.PandemicState;
+import up.edu.pandemicgamestate.Policy;
+import up.edu.pandemicgamestate.RandomPolicy;
+import up.edu.pandemicgamestate.Simulator;
+
+/** GameStateBenchmark
+ * These are the benchmarks for the parts of the game state that the bots and the simulator call
+ * the most. Every benchmark runs for each number of players and each board, where "start" is a
+ * new game and "midgame" is a game a few random turns in. The single actions are benchmarked in
+ * ActionBenchmark, on positions where each of them is legal.
+ *
+ * The rollout benchmark first resets a working state from the board with copyFrom(), so that
+ * every game starts from the same place. The reset benchmark measures that step on its own.
+ * legalActions times the cached bitmask that is returned until the state changes, and
+ * checkLegalActions times working it out again, without copying the state first.
+ * @author Nick Scott, Sarah Strong, and Emily Vo.
+ * @version 20 October 2020.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    // the number of random turns played to make the "midgame" board
+    private static final int MIDGAME_TURNS = 6;
+    private static final long SEED = 2020;
+
+    @Param({"2", "3", "4"})
+    public int numPlayers;
+
+    @Param({"start", "midgame"})
+    public String board;
+
+    private PandemicState state;
+    private PackedState base;
+    private PackedState work;
+    private Policy policy;
+    private GameRandom rng;
+
+    // the player whose turn it is on the board
+    private int player;
+
+    /** setUp()
+     * This method makes the board that every benchmark starts from.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.state = new PandemicState(this.numPlayers, SEED);
+        this.base = this.state.getPackedState();
+        this.policy = new RandomPolicy();
+        if(this.board.equals("midgame")) {
+            for(int i = 0; i < MIDGAME_TURNS; i++) {
+                Simulator.playTurn(this.policy, this.base, this.base.getRandom());
+            }
+        }
+        this.work = new PackedState(this.base);
+        this.rng = new GameRandom(SEED);
+        this.player = this.base.getCurrPlayer();
+    } // setUp()
+
+    @Benchmark
+    public PandemicState copy() {
+        return new PandemicState(this.state);
+    } // copy()
+
+    @Benchmark
+    public PackedState reset() {
+        this.work.copyFrom(this.base);
+        return this.work;
+    } // reset()
+
+    @Benchmark
+    public int legalActions() {
+        // after the first call this is the cached bitmask, as on every redraw between moves
+        return this.base.getLegalActions(this.player);
+    } // legalActions()
+
+    @Benchmark
+    public int checkLegalActions() {
+        // the cost of working the legal actions out again, as after every move
+        this.base.forgetLegalActions();
+        return this.base.getLegalActions(this.player);
+    } // checkLegalActions()
+
+    @Benchmark
+    public String toStringState() {
+        return this.state.toString();
+    } // toStringState()
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rollout(Blackhole bh) {
+        this.work.copyFrom(this.base);
+        this.work.getRandom().setSeed(this.rng.nextLong());
+        bh.consume(Simulator.playGame(this.policy, this.work, this.work.getRandom()));
+        bh.consume(this.work.getGameCondition());
+    } // rollout()
+}